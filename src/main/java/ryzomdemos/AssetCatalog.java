@@ -0,0 +1,975 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+import jme3utilities.math.MyArray;
+
+/**
+ * Immutable snapshot of the catalog, expressed in terms of dense int IDs so
+ * that navigation doesn't need string comparisons or allocations.
+ * <p>
+ * Each geometry asset has an ID that's unique within its body part, and each
+ * animation (or animation keyword) has an ID that's unique among all
+ * animations (or keywords). IDs are assigned on first use and never
+ * reassigned, so they remain valid across snapshots (even for names that
+ * aren't cataloged yet). Within a snapshot, the IDs known for each (body part,
+ * gender) and each (skeletal group, gender) are ranked in lexicographic order
+ * of their names, the animations that match each keyword can be enumerated
+ * via a {@link KeywordIndex}, and each geometry asset's counterpart for the
+ * opposite gender can be found via a {@link CounterpartTable}. The geometry
+ * assets can also be queried by name prefix (as a contiguous range of ranks)
+ * or by race, family, piece, or color (via a {@link GeometryIndex}).
+ * <p>
+ * A snapshot captures an immutable {@link ShardSnapshot} of each shard, and
+ * merges them with deterministic precedence: earlier roots win. A geometry
+ * asset listed by an earlier root is ignored in later roots, and the
+ * animations for each (skeletal group, gender) come from the earliest root
+ * that exports them.
+ * <p>
+ * Capturing a snapshot is cheap: each list is merged and ranked (and any
+ * summary sections it depends on are decoded) on first access, so the cost of
+ * a snapshot depends only on what's displayed. Since everything is derived
+ * from immutable inputs, every list reflects the same version of the catalog,
+ * no matter when it's first accessed. Loading is lock-free: threads that
+ * race to load the same list may duplicate work, but all of them see the
+ * list that was recorded first.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class AssetCatalog {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * ID that represents no asset or animation
+     */
+    final static int noId = -1;
+    /**
+     * all body parts, indexed by ordinal
+     */
+    final private static BodyPart[] parts = BodyPart.values();
+    /**
+     * number of body parts
+     */
+    final private static int numParts = parts.length;
+    /**
+     * number of geometry lists, one for each (body part, gender)
+     */
+    final private static int numGeometryLists
+            = numParts * RyzomUtil.genderCodeArray.length;
+    /**
+     * number of (skeletal group, gender) combinations
+     */
+    final private static int numCombos = RyzomUtil.groupNameArray.length
+            * RyzomUtil.genderCodeArray.length;
+    /**
+     * number of lists, including two (animations, then keywords) for each
+     * (skeletal group, gender)
+     */
+    final private static int numLists = numGeometryLists + 2 * numCombos;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(AssetCatalog.class.getName());
+    /**
+     * registry of animation IDs
+     */
+    final private static NameRegistry animationRegistry = new NameRegistry();
+    /**
+     * registry of geometry IDs for each body part, indexed by ordinal
+     */
+    final private static NameRegistry[] geometryRegistries
+            = createRegistries(numParts);
+    /**
+     * registry of keyword IDs
+     */
+    final private static NameRegistry keywordRegistry = new NameRegistry();
+    /**
+     * for each geometry list, the secondary indexes most recently built, in
+     * any snapshot
+     */
+    final private static AtomicReferenceArray<GeometryIndex> lastIndices
+            = new AtomicReferenceArray<>(numGeometryLists);
+    /**
+     * for each list, the ranked list most recently built, in any snapshot
+     */
+    final private static AtomicReferenceArray<RankedList> lastLists
+            = new AtomicReferenceArray<>(numLists);
+    // *************************************************************************
+    // fields
+
+    /**
+     * gender counterparts for each body part, indexed by ordinal (each
+     * element null until first access)
+     */
+    final private AtomicReferenceArray<CounterpartTable> counterparts
+            = new AtomicReferenceArray<>(numParts);
+    /**
+     * merged geometry assets for each geometry list (each element null until
+     * first access)
+     */
+    final private AtomicReferenceArray<FrontCodedDictionary> geometries
+            = new AtomicReferenceArray<>(numGeometryLists);
+    /**
+     * secondary indexes for each geometry list (each element null until first
+     * access)
+     */
+    final private AtomicReferenceArray<GeometryIndex> geometryIndices
+            = new AtomicReferenceArray<>(numGeometryLists);
+    /**
+     * ranked IDs for each list (each element null until first access)
+     */
+    final private AtomicReferenceArray<RankedList> lists
+            = new AtomicReferenceArray<>(numLists);
+    /**
+     * true if the snapshot describes every exported asset, false if it's
+     * empty, partial, or stale
+     */
+    final private boolean isComplete;
+    /**
+     * catalog revision captured by this snapshot
+     */
+    final private int revision;
+    /**
+     * names of all exported assets, or null if not derived yet
+     */
+    private volatile Set<String> exportedAssets = null;
+    /**
+     * for each (shard, gender): the names of the geometry assets that earlier
+     * shards list for that gender (each element null until first access)
+     */
+    final private AtomicReferenceArray<Set<String>> shadowingNames;
+    /**
+     * captured state of each shard, in order of decreasing precedence
+     */
+    final private ShardSnapshot[] shards;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Capture a snapshot of the catalog, without loading any lists. Invoked
+     * only by {@link RyzomUtil#publishCatalog()}.
+     *
+     * @param revision the catalog revision being captured
+     * @param shards the state of each shard, in order of decreasing
+     * precedence (not null, not empty, alias created)
+     * @param isComplete true if the shards describe every exported asset,
+     * otherwise false
+     */
+    AssetCatalog(int revision, ShardSnapshot[] shards, boolean isComplete) {
+        assert shards.length > 0;
+
+        this.revision = revision;
+        this.shards = shards;
+        this.isComplete = isComplete;
+        this.shadowingNames = new AtomicReferenceArray<>(
+                shards.length * RyzomUtil.genderCodeArray.length);
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Find the ID of the ranked animation for the specified skeletal group and
+     * gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param rank the rank of the animation (&ge;0, &lt;numAnimations)
+     * @return the animation ID (&ge;0)
+     */
+    int animationAt(String groupName, String genderCode, int rank) {
+        int list = animationList(groupName, genderCode);
+        int result = rankedList(list).idAt(rank);
+
+        return result;
+    }
+
+    /**
+     * Find the ID of the named animation, assigning one if necessary.
+     *
+     * @param name the animation name (not null)
+     * @return the ID (&ge;0)
+     */
+    static int animationId(String name) {
+        int result = animationRegistry.idOf(name);
+        return result;
+    }
+
+    /**
+     * Access the name of the identified animation.
+     *
+     * @param id the animation ID (&ge;0)
+     * @return the pre-existing name (not null)
+     */
+    static String animationName(int id) {
+        String result = animationRegistry.name(id);
+        return result;
+    }
+
+    /**
+     * Rank the identified animation among those known for the specified
+     * skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param id the animation ID (&ge;0)
+     * @return the rank (&ge;0) or noId if not known for that combination
+     */
+    int animationRank(String groupName, String genderCode, int id) {
+        int list = animationList(groupName, genderCode);
+        int result = rankedList(list).rank(id);
+
+        return result;
+    }
+
+    /**
+     * Access the names of all exported assets in this snapshot, deriving them
+     * if necessary. Works for both animation assets and geometry assets.
+     *
+     * @return the pre-existing set (not null, do not modify)
+     */
+    Set<String> exportedAssets() {
+        Set<String> result = exportedAssets;
+        if (result == null) {
+            result = new HashSet<>(4096);
+            for (BodyPart part : parts) {
+                for (String genderCode : RyzomUtil.genderCodeArray) {
+                    FrontCodedDictionary names
+                            = knownGeometries(part, genderCode);
+                    Collections.addAll(result, names.toArray());
+                }
+            }
+            for (String groupName : RyzomUtil.groupNameArray) {
+                for (String genderCode : RyzomUtil.genderCodeArray) {
+                    if (knownAnimations(groupName, genderCode).size() > 0) {
+                        String assetName = String.format(
+                                "animations_%s_ho%s", groupName, genderCode);
+                        result.add(assetName);
+                    }
+                }
+            }
+            this.exportedAssets = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the ID of the ranked geometry asset for the specified body part and
+     * gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @param rank the rank of the asset (&ge;0, &lt;numGeometries)
+     * @return the asset ID (&ge;0)
+     */
+    int geometryAt(BodyPart part, String genderCode, int rank) {
+        int list = geometryList(part, genderCode);
+        int result = rankedList(list).idAt(rank);
+
+        return result;
+    }
+
+    /**
+     * Find the counterpart of the identified geometry asset for the specified
+     * gender.
+     *
+     * @param part the asset's body part (not null)
+     * @param toGender "f" for female or "m" for male
+     * @param id the ID of an asset known for the opposite gender (&ge;0)
+     * @return the ID of the counterpart (&ge;0) or noId if none
+     */
+    int geometryCounterpart(BodyPart part, String toGender, int id) {
+        String fromGender = toGender.equals("m") ? "f" : "m";
+        int rank = geometryRank(part, fromGender, id);
+        if (rank < 0) {
+            return noId;
+        }
+
+        CounterpartTable table = counterparts(part);
+        int counterpartRank = table.counterpart(toGender, rank);
+        int result = noId;
+        if (counterpartRank >= 0) {
+            result = geometryAt(part, toGender, counterpartRank);
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the ID of the named geometry asset, assigning one if necessary.
+     *
+     * @param part the asset's body part (not null)
+     * @param assetName the asset name (not null)
+     * @return the ID (&ge;0)
+     */
+    static int geometryId(BodyPart part, String assetName) {
+        NameRegistry registry = geometryRegistries[part.ordinal()];
+        int result = registry.idOf(assetName);
+
+        return result;
+    }
+
+    /**
+     * Access the secondary indexes of the geometry assets for the specified
+     * body part and gender, building them if necessary. The indices they
+     * return are ranks in this snapshot.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing indexes (not null)
+     */
+    GeometryIndex geometryIndex(BodyPart part, String genderCode) {
+        int list = geometryList(part, genderCode);
+        GeometryIndex result = geometryIndices.get(list);
+        if (result == null) {
+            FrontCodedDictionary dictionary = knownGeometries(part, genderCode);
+            result = lastIndices.get(list);
+            if (result == null || result.source() != dictionary) {
+                result = GeometryIndex.build(dictionary);
+                lastIndices.set(list, result);
+            }
+            if (!geometryIndices.compareAndSet(list, null, result)) {
+                result = geometryIndices.get(list);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the name of the identified geometry asset.
+     *
+     * @param part the asset's body part (not null)
+     * @param id the asset ID (&ge;0)
+     * @return the pre-existing name (not null)
+     */
+    static String geometryName(BodyPart part, int id) {
+        NameRegistry registry = geometryRegistries[part.ordinal()];
+        String result = registry.name(id);
+
+        return result;
+    }
+
+    /**
+     * Find the ranks of the geometry assets for the specified body part and
+     * gender whose names begin with the specified prefix, such as "fy_" or
+     * "fy_hom_armor01_gilet@". Costs O(log n) and doesn't allocate, unless
+     * storeResult is null.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @param prefix the prefix to match (not null, may be empty)
+     * @param storeResult storage for the result (modified if not null)
+     * @return the rank of the first match followed by the rank after the last
+     * match (either storeResult or a new array of length 2)
+     */
+    int[] geometryPrefixRange(BodyPart part, String genderCode,
+            String prefix, int[] storeResult) {
+        FrontCodedDictionary names = knownGeometries(part, genderCode);
+        int[] result = names.prefixRange(prefix, storeResult);
+
+        return result;
+    }
+
+    /**
+     * Rank the identified geometry asset among those known for the specified
+     * body part and gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @param id the asset ID (&ge;0)
+     * @return the rank (&ge;0) or noId if not known for that combination
+     */
+    int geometryRank(BodyPart part, String genderCode, int id) {
+        int list = geometryList(part, genderCode);
+        int result = rankedList(list).rank(id);
+
+        return result;
+    }
+
+    /**
+     * Test whether this snapshot describes every exported asset.
+     *
+     * @return true if complete, false if it's empty, partial, or stale
+     */
+    boolean isComplete() {
+        return isComplete;
+    }
+
+    /**
+     * Find the ranked keyword for the specified skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param rank the rank of the keyword (&ge;0, &lt;numKeywords)
+     * @return the keyword ID (&ge;0)
+     */
+    int keywordAt(String groupName, String genderCode, int rank) {
+        int list = keywordList(groupName, genderCode);
+        int result = rankedList(list).idAt(rank);
+
+        return result;
+    }
+
+    /**
+     * Find the ID of the specified keyword, assigning one if necessary.
+     *
+     * @param keyword the animation keyword (not null)
+     * @return the ID (&ge;0)
+     */
+    static int keywordId(String keyword) {
+        int result = keywordRegistry.idOf(keyword);
+        return result;
+    }
+
+    /**
+     * Access the identified keyword.
+     *
+     * @param id the keyword ID (&ge;0)
+     * @return the pre-existing keyword (not null)
+     */
+    static String keywordName(int id) {
+        String result = keywordRegistry.name(id);
+        return result;
+    }
+
+    /**
+     * Rank the identified keyword among those known for the specified
+     * skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param id the keyword ID (&ge;0)
+     * @return the rank (&ge;0) or noId if not known for that combination
+     */
+    int keywordRank(String groupName, String genderCode, int id) {
+        int list = keywordList(groupName, genderCode);
+        int result = rankedList(list).rank(id);
+
+        return result;
+    }
+
+    /**
+     * Access the dictionary of known animation names for the specified gender
+     * and skeletal group.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing dictionary of names (not null)
+     */
+    FrontCodedDictionary knownAnimations(String groupName, String genderCode) {
+        ShardSnapshot source = animationSource(groupName, genderCode);
+        FrontCodedDictionary result
+                = source.knownAnimations(groupName, genderCode);
+
+        return result;
+    }
+
+    /**
+     * Access the dictionary of known geometry assets for the specified body
+     * part and gender, merging it if necessary.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing dictionary of asset names (not null)
+     */
+    FrontCodedDictionary knownGeometries(BodyPart part, String genderCode) {
+        if (shards.length == 1) {
+            FrontCodedDictionary result
+                    = shards[0].knownGeometries(part, genderCode);
+            return result;
+        }
+
+        int list = geometryList(part, genderCode);
+        FrontCodedDictionary result = geometries.get(list);
+        if (result == null) {
+            result = mergeGeometries(part, genderCode);
+            if (!geometries.compareAndSet(list, null, result)) {
+                result = geometries.get(list);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the dictionary of known keywords for the specified gender and
+     * skeletal group.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing dictionary of animation keywords (not null)
+     */
+    FrontCodedDictionary knownKeywords(String groupName, String genderCode) {
+        ShardSnapshot source = animationSource(groupName, genderCode);
+        FrontCodedDictionary result
+                = source.knownKeywords(groupName, genderCode);
+
+        return result;
+    }
+
+    /**
+     * Find the animation at the specified position among those known for the
+     * specified skeletal group and gender that match the identified keyword.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param keywordId the keyword ID (&ge;0)
+     * @param position the position among the matches (&ge;0, &lt;numMatches)
+     * @return the animation ID (&ge;0)
+     */
+    int matchAt(String groupName, String genderCode, int keywordId,
+            int position) {
+        int keywordRank = keywordRank(groupName, genderCode, keywordId);
+        KeywordIndex index = keywordIndex(groupName, genderCode);
+        int animationRank = index.match(keywordRank, position);
+        int result = animationAt(groupName, genderCode, animationRank);
+
+        return result;
+    }
+
+    /**
+     * Determine the position of the identified animation among those known
+     * for the specified skeletal group and gender that match the identified
+     * keyword.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param keywordId the keyword ID (&ge;0)
+     * @param animationId the animation ID (&ge;0)
+     * @return the position (&ge;0) or -1 if the animation isn't known for
+     * that combination or doesn't match the keyword
+     */
+    int matchPosition(String groupName, String genderCode, int keywordId,
+            int animationId) {
+        int keywordRank = keywordRank(groupName, genderCode, keywordId);
+        int animationRank
+                = animationRank(groupName, genderCode, animationId);
+        if (keywordRank < 0 || animationRank < 0) {
+            return -1;
+        }
+
+        KeywordIndex index = keywordIndex(groupName, genderCode);
+        int result = index.position(keywordRank, animationRank);
+
+        return result;
+    }
+
+    /**
+     * Count the known animations for the specified skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the count (&ge;0)
+     */
+    int numAnimations(String groupName, String genderCode) {
+        int list = animationList(groupName, genderCode);
+        int result = rankedList(list).size();
+
+        return result;
+    }
+
+    /**
+     * Count the known keywords for the specified skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the count (&ge;0)
+     */
+    int numKeywords(String groupName, String genderCode) {
+        int list = keywordList(groupName, genderCode);
+        int result = rankedList(list).size();
+
+        return result;
+    }
+
+    /**
+     * Count the known animations for the specified skeletal group and gender
+     * that match the identified keyword.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param keywordId the keyword ID (&ge;0)
+     * @return the count (&ge;0)
+     */
+    int numMatches(String groupName, String genderCode, int keywordId) {
+        int keywordRank = keywordRank(groupName, genderCode, keywordId);
+        if (keywordRank < 0) {
+            return 0;
+        }
+
+        KeywordIndex index = keywordIndex(groupName, genderCode);
+        int result = index.numMatches(keywordRank);
+
+        return result;
+    }
+
+    /**
+     * Count the known geometry assets for the specified body part and gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the count (&ge;0)
+     */
+    int numGeometries(BodyPart part, String genderCode) {
+        int list = geometryList(part, genderCode);
+        int result = rankedList(list).size();
+
+        return result;
+    }
+
+    /**
+     * Read the catalog revision captured by this snapshot.
+     *
+     * @return the revision number
+     */
+    int revision() {
+        return revision;
+    }
+
+    /**
+     * Load every list and counterpart table that hasn't been loaded yet (and,
+     * if the snapshot is complete, the names of all exported assets) so later
+     * accesses won't have to. Intended for use on a background thread.
+     */
+    void warmUp() {
+        for (int list = 0; list < numLists; ++list) {
+            rankedList(list);
+        }
+        for (BodyPart part : parts) {
+            counterparts(part);
+        }
+        if (isComplete) {
+            exportedAssets();
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Determine the index of the animation list for the specified skeletal
+     * group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the list index (&ge;numGeometryLists)
+     */
+    private static int animationList(String groupName, String genderCode) {
+        int result = numGeometryLists + comboIndex(groupName, genderCode);
+        return result;
+    }
+
+    /**
+     * Find the shard that supplies the animations, keywords, and keyword index
+     * for the specified skeletal group and gender: the earliest one that
+     * exports any animations for that combination. Since all 3 come from the
+     * same immutable shard snapshot, they're always mutually consistent.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing shard snapshot (not null)
+     */
+    private ShardSnapshot animationSource(
+            String groupName, String genderCode) {
+        for (ShardSnapshot shard : shards) {
+            if (shard.knownAnimations(groupName, genderCode).size() > 0) {
+                return shard;
+            }
+        }
+
+        return shards[0];
+    }
+
+    /**
+     * Determine the index of the specified (skeletal group, gender)
+     * combination.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the index (&ge;0, &lt;numCombos)
+     */
+    private static int comboIndex(String groupName, String genderCode) {
+        assert groupName.equals("ca") || groupName.equals("ge") : groupName;
+        int groupIndex = groupName.equals("ge") ? 1 : 0;
+        int result = 2 * groupIndex + genderIndex(genderCode);
+
+        return result;
+    }
+
+    /**
+     * Access the gender counterparts for the specified body part, loading them
+     * if necessary. A shard's table is reused if its dictionaries weren't
+     * altered by merging.
+     *
+     * @param part (not null)
+     * @return the pre-existing table (not null)
+     */
+    private CounterpartTable counterparts(BodyPart part) {
+        int ordinal = part.ordinal();
+        CounterpartTable result = counterparts.get(ordinal);
+        if (result != null) {
+            return result;
+        }
+
+        FrontCodedDictionary female = knownGeometries(part, "f");
+        FrontCodedDictionary male = knownGeometries(part, "m");
+        for (ShardSnapshot shard : shards) {
+            if (shard.knownGeometries(part, "f") == female
+                    && shard.knownGeometries(part, "m") == male) {
+                result = shard.counterparts(part);
+                break;
+            }
+        }
+        if (result == null) {
+            result = CounterpartTable.build(female, male);
+        }
+        if (!counterparts.compareAndSet(ordinal, null, result)) {
+            result = counterparts.get(ordinal);
+        }
+
+        return result;
+    }
+
+    /**
+     * Create a registry for each body part.
+     *
+     * @param count the number of registries to create (&ge;0)
+     * @return a new array of new registries
+     */
+    private static NameRegistry[] createRegistries(int count) {
+        NameRegistry[] result = new NameRegistry[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = new NameRegistry();
+        }
+
+        return result;
+    }
+
+    /**
+     * Determine the index of the specified gender.
+     *
+     * @param genderCode "f" for female or "m" for male
+     * @return 0 or 1
+     */
+    private static int genderIndex(String genderCode) {
+        int result;
+        if (genderCode.equals("m")) {
+            result = 1;
+        } else {
+            assert genderCode.equals("f") : genderCode;
+            result = 0;
+        }
+
+        return result;
+    }
+
+    /**
+     * Determine the index of the geometry list for the specified body part and
+     * gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the list index (&ge;0, &lt;numGeometryLists)
+     */
+    private static int geometryList(BodyPart part, String genderCode) {
+        int result = 2 * part.ordinal() + genderIndex(genderCode);
+        return result;
+    }
+
+    /**
+     * Access the keyword index for the specified skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing index (not null)
+     */
+    private KeywordIndex keywordIndex(String groupName, String genderCode) {
+        ShardSnapshot source = animationSource(groupName, genderCode);
+        KeywordIndex result = source.keywordIndex(groupName, genderCode);
+
+        return result;
+    }
+
+    /**
+     * Determine the index of the keyword list for the specified skeletal
+     * group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the list index (&ge;numGeometryLists + numCombos)
+     */
+    private static int keywordList(String groupName, String genderCode) {
+        int result = numGeometryLists + numCombos
+                + comboIndex(groupName, genderCode);
+        return result;
+    }
+
+    /**
+     * Merge the geometry assets for the specified body part and gender. A name
+     * listed by an earlier shard (for any body part) is omitted from later
+     * shards. If a single shard contributes all the names, its dictionary is
+     * returned as-is.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return a dictionary of asset names (not null)
+     */
+    private FrontCodedDictionary mergeGeometries(
+            BodyPart part, String genderCode) {
+        FrontCodedDictionary soleSource = null;
+        int numContributors = 0;
+        Set<String> merged = new TreeSet<>();
+
+        int numShards = shards.length;
+        for (int shardIndex = 0; shardIndex < numShards; ++shardIndex) {
+            FrontCodedDictionary names
+                    = shards[shardIndex].knownGeometries(part, genderCode);
+            int numNames = names.size();
+            if (numNames == 0) {
+                continue;
+            }
+
+            Set<String> shadowing = shadowingNames(shardIndex, genderCode);
+            boolean isComplete = true;
+            for (int i = 0; i < numNames; ++i) {
+                String name = names.get(i);
+                if (shadowing.contains(name)) {
+                    isComplete = false;
+                } else {
+                    merged.add(name);
+                }
+            }
+            ++numContributors;
+            if (isComplete) {
+                soleSource = names;
+            }
+        }
+
+        FrontCodedDictionary result;
+        if (numContributors == 0) {
+            result = FrontCodedDictionary.empty;
+        } else if (numContributors == 1 && soleSource != null) {
+            result = soleSource;
+        } else {
+            String[] array = new String[merged.size()];
+            merged.toArray(array);
+            assert MyArray.isSorted(array);
+            result = FrontCodedDictionary.of(array);
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the indexed list, ranking its names if necessary. A list built
+     * from the same dictionary (by any snapshot) is reused.
+     *
+     * @param list the index of the list
+     * @return the pre-existing list (not null)
+     */
+    private RankedList rankedList(int list) {
+        RankedList result = lists.get(list);
+        if (result != null) {
+            return result;
+        }
+
+        FrontCodedDictionary dictionary;
+        NameRegistry registry;
+        if (list < numGeometryLists) {
+            BodyPart part = parts[list / 2];
+            String genderCode = RyzomUtil.genderCodeArray[list % 2];
+            dictionary = knownGeometries(part, genderCode);
+            registry = geometryRegistries[part.ordinal()];
+        } else {
+            int combo = (list - numGeometryLists) % numCombos;
+            String groupName = RyzomUtil.groupNameArray[combo / 2];
+            String genderCode = RyzomUtil.genderCodeArray[combo % 2];
+            if (list < numGeometryLists + numCombos) {
+                dictionary = knownAnimations(groupName, genderCode);
+                registry = animationRegistry;
+            } else {
+                dictionary = knownKeywords(groupName, genderCode);
+                registry = keywordRegistry;
+            }
+        }
+
+        result = lastLists.get(list);
+        if (result == null || result.source() != dictionary) {
+            result = RankedList.build(dictionary, registry);
+            lastLists.set(list, result);
+        }
+        if (!lists.compareAndSet(list, null, result)) {
+            result = lists.get(list);
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the names of the geometry assets that shards earlier than the
+     * specified one list for the specified gender, collecting them if
+     * necessary. A name determines its gender, so other genders needn't be
+     * consulted. The set is collected once per snapshot and shared by the
+     * merges of every body part.
+     *
+     * @param shardIndex the index of the shard in question (&ge;0)
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing unmodifiable set (not null)
+     */
+    private Set<String> shadowingNames(int shardIndex, String genderCode) {
+        if (shardIndex == 0) {
+            return Collections.emptySet();
+        }
+
+        int index = shardIndex * RyzomUtil.genderCodeArray.length
+                + genderIndex(genderCode);
+        Set<String> result = shadowingNames.get(index);
+        if (result == null) {
+            Set<String> earlier = shadowingNames(shardIndex - 1, genderCode);
+            result = new HashSet<>(earlier);
+            for (BodyPart part : parts) {
+                FrontCodedDictionary names = shards[shardIndex - 1]
+                        .knownGeometries(part, genderCode);
+                Collections.addAll(result, names.toArray());
+            }
+            result = Collections.unmodifiableSet(result);
+            if (!shadowingNames.compareAndSet(index, null, result)) {
+                result = shadowingNames.get(index);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.logging.Logger;
+
+/**
+ * Structured form of the name of an exported asset, such as
+ * "fy_hom_armor01_gilet@01x_c1" or "ca_hom_co_course". Immutable.
+ * <p>
+ * Instances are created by {@link AssetNameParser} and cached by
+ * {@link RyzomUtil#parseAssetName(java.lang.String)}.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class AssetName {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(AssetName.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * color code following the variant (for example, "c1") or "" if none
+     */
+    final private String color;
+    /**
+     * family, between the gender and the piece (for example, "armor01") or ""
+     * if none
+     */
+    final private String family;
+    /**
+     * the name adjusted for a female character
+     */
+    final private String femaleName;
+    /**
+     * 1-letter gender code ("f" or "m") or null if unknown
+     */
+    final private String gender;
+    /**
+     * the name adjusted for a male character
+     */
+    final private String maleName;
+    /**
+     * the full name
+     */
+    final private String name;
+    /**
+     * piece, preceding the '@' (for example, "gilet") or "" if none
+     */
+    final private String piece;
+    /**
+     * 2-letter code for the race (or skeletal group) at the start of the name
+     */
+    final private String race;
+    /**
+     * variant, following the '@' (for example, "01x") or "" if none
+     */
+    final private String variant;
+    /**
+     * animation keywords extracted from the name (not null, may contain
+     * duplicates)
+     */
+    final private String[] keywords;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a record with the specified components.
+     *
+     * @param name the full name (not null, not empty)
+     * @param race the race code (not null)
+     * @param gender the gender code ("f" or "m") or null if unknown
+     * @param family the family (not null)
+     * @param piece the piece (not null)
+     * @param variant the variant (not null)
+     * @param color the color code (not null)
+     * @param femaleName the name adjusted for a female character (not null)
+     * @param maleName the name adjusted for a male character (not null)
+     * @param keywords the animation keywords (not null, alias created)
+     */
+    AssetName(String name, String race, String gender, String family,
+            String piece, String variant, String color, String femaleName,
+            String maleName, String[] keywords) {
+        assert name != null;
+        assert gender == null || gender.equals("f") || gender.equals("m") :
+                gender;
+        assert femaleName != null;
+        assert maleName != null;
+        assert keywords != null;
+
+        this.name = name;
+        this.race = race;
+        this.gender = gender;
+        this.family = family;
+        this.piece = piece;
+        this.variant = variant;
+        this.color = color;
+        this.femaleName = femaleName;
+        this.maleName = maleName;
+        this.keywords = keywords;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Read the color code.
+     *
+     * @return the code (not null, may be empty)
+     */
+    String color() {
+        return color;
+    }
+
+    /**
+     * Read the family.
+     *
+     * @return the family (not null, may be empty)
+     */
+    String family() {
+        return family;
+    }
+
+    /**
+     * Adjust the name to match the specified gender. If the name doesn't
+     * indicate a gender, it's returned unchanged.
+     *
+     * @param genderCode "f" for female or "m" for male
+     * @return the adjusted name (not null)
+     */
+    String forGender(String genderCode) {
+        String result;
+        if (genderCode.equals("f")) {
+            result = femaleName;
+        } else {
+            assert genderCode.equals("m") : genderCode;
+            result = maleName;
+        }
+
+        return result;
+    }
+
+    /**
+     * Read the gender code.
+     *
+     * @return "f" for female, "m" for male, or null if unknown
+     */
+    String genderCode() {
+        return gender;
+    }
+
+    /**
+     * Access the animation keywords extracted from the name.
+     *
+     * @return the pre-existing array (not null, may contain duplicates)
+     */
+    String[] keywords() {
+        return keywords;
+    }
+
+    /**
+     * Read the full name.
+     *
+     * @return the name (not null)
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * Read the piece.
+     *
+     * @return the piece (not null, may be empty)
+     */
+    String piece() {
+        return piece;
+    }
+
+    /**
+     * Read the race code.
+     *
+     * @return the code (not null)
+     */
+    String race() {
+        return race;
+    }
+
+    /**
+     * Read the variant.
+     *
+     * @return the variant (not null, may be empty)
+     */
+    String variant() {
+        return variant;
+    }
+    // *************************************************************************
+    // Object methods
+
+    /**
+     * Represent this instance as a String.
+     *
+     * @return the full name (not null)
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.logging.Logger;
+
+/**
+ * Single-pass parser for the names of exported assets. Parsing locates the
+ * underscores and the '@' without compiling a regular expression or
+ * allocating: the buffers are reused from one name to the next. Strings are
+ * allocated only when {@link #toAssetName()} is invoked. Not thread-safe.
+ * <p>
+ * The gender code and the gender-adjusted names follow the same rules (and
+ * precedence) as the string tests they replaced, as verified over an export
+ * by {@link NameCheck}.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class AssetNameParser {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(AssetNameParser.class.getName());
+    /**
+     * race codes that begin the names of geometry assets
+     */
+    final static String[] raceCodes
+            = {"ca", "fy", "ge", "ma", "tr", "zo"};
+    // *************************************************************************
+    // fields
+
+    /**
+     * index of the '@' in the name, or -1 if none
+     */
+    private int atIndex;
+    /**
+     * index of the first interior "hof", "hom", "f", or "h" token, which
+     * separates the race from the family, or -1 if none
+     */
+    private int genderToken;
+    /**
+     * number of underscores in the name
+     */
+    private int numSeparators;
+    /**
+     * indices of the underscores in the name (grown as needed)
+     */
+    private int[] separators = new int[16];
+    /**
+     * the name most recently parsed, or null if none
+     */
+    private String name;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Read the gender code of the name most recently parsed. "hof" or "hom"
+     * immediately after the race code takes precedence, then "_f_", then
+     * "_h_" anywhere in the name.
+     *
+     * @return "f" for female, "m" for male, or null if unknown
+     */
+    String genderCode() {
+        String result = null;
+        if (name.startsWith("hof", 3)) {
+            result = "f";
+        } else if (name.startsWith("hom", 3)) {
+            result = "m";
+        } else if (name.contains("_f_")) {
+            result = "f";
+        } else if (name.contains("_h_")) {
+            result = "m";
+        }
+
+        return result;
+    }
+
+    /**
+     * Test whether the specified filename or asset name begins with a race
+     * code, as the names of geometry assets do.
+     *
+     * @param name the name to test (not null)
+     * @return true if it does, otherwise false
+     */
+    static boolean hasRacePrefix(String name) {
+        for (String code : raceCodes) {
+            if (name.startsWith(code)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Parse the specified name, replacing the results of any previous parse.
+     *
+     * @param assetName the name to parse (not null, not empty)
+     */
+    void parse(String assetName) {
+        this.name = assetName;
+        this.atIndex = -1;
+        this.numSeparators = 0;
+
+        int length = assetName.length();
+        for (int index = 0; index < length; ++index) {
+            char ch = assetName.charAt(index);
+            if (ch == '_') {
+                if (numSeparators == separators.length) {
+                    int[] grown = new int[2 * numSeparators];
+                    System.arraycopy(separators, 0, grown, 0, numSeparators);
+                    this.separators = grown;
+                }
+                separators[numSeparators] = index;
+                ++numSeparators;
+            } else if (ch == '@' && atIndex < 0) {
+                this.atIndex = index;
+            }
+        }
+        /*
+         * Locate the gender token. "hof" and "hom" take precedence over
+         * "f" and "h", and only interior tokens are considered.
+         */
+        this.genderToken = -1;
+        int lastInterior = numSeparators - 1;
+        for (int token = 1; token <= lastInterior; ++token) {
+            if (tokenEquals(token, "hof") || tokenEquals(token, "hom")) {
+                this.genderToken = token;
+                return;
+            }
+        }
+        for (int token = 1; token <= lastInterior; ++token) {
+            if (tokenEquals(token, "f") || tokenEquals(token, "h")) {
+                this.genderToken = token;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Create a record of the name most recently parsed.
+     *
+     * @return a new instance (not null)
+     */
+    AssetName toAssetName() {
+        assert name != null;
+
+        int numTokens = numSeparators + 1;
+        String race = name.substring(0, tokenEnd(0));
+        String gender = genderCode();
+
+        // The piece is the last token that begins before the '@', if any.
+        int stemEnd = (atIndex < 0) ? name.length() : atIndex;
+        int pieceToken = numTokens - 1;
+        while (pieceToken > 0 && tokenStart(pieceToken) > stemEnd) {
+            --pieceToken;
+        }
+        int firstFamilyToken = Math.max(genderToken, 0) + 1;
+        String piece = "";
+        String family = "";
+        if (pieceToken >= firstFamilyToken) {
+            piece = name.substring(tokenStart(pieceToken),
+                    Math.min(tokenEnd(pieceToken), stemEnd));
+            if (pieceToken > firstFamilyToken) {
+                family = name.substring(tokenStart(firstFamilyToken),
+                        tokenEnd(pieceToken - 1));
+            }
+        }
+
+        // The variant follows the '@' and the color follows the variant.
+        String variant = "";
+        String color = "";
+        if (atIndex >= 0) {
+            int variantEnd = tokenEnd(pieceToken);
+            variant = name.substring(atIndex + 1, variantEnd);
+            if (variantEnd < name.length()) {
+                color = name.substring(variantEnd + 1);
+            }
+        }
+
+        String femaleName = adjustForGender("f");
+        String maleName = adjustForGender("m");
+        String[] keywords = keywords();
+        AssetName result = new AssetName(name, race, gender, family, piece,
+                variant, color, femaleName, maleName, keywords);
+
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Adjust the name most recently parsed to match the specified gender.
+     * At most one kind of substitution is made ("_hom_"/"_hof_" in preference
+     * to "_h_"/"_f_"), but it applies to every occurrence.
+     *
+     * @param genderCode "f" for female or "m" for male
+     * @return the adjusted name (not null)
+     */
+    private String adjustForGender(String genderCode) {
+        String result = name;
+        if (genderCode.equals("f")) {
+            if (name.contains("_hom_")) {
+                result = name.replace("_hom_", "_hof_");
+            } else if (name.contains("_h_")) {
+                result = name.replace("_h_", "_f_");
+            }
+        } else {
+            if (name.contains("_hof_")) {
+                result = name.replace("_hof_", "_hom_");
+            } else if (name.contains("_f_")) {
+                result = name.replace("_f_", "_h_");
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Extract animation keywords from the name most recently parsed: each
+     * underscore-separated word, less any trailing digits, excluding short
+     * words and words that appear very often.
+     *
+     * @return a new array (not null)
+     */
+    private String[] keywords() {
+        int numTokens = numSeparators + 1;
+        int numKeywords = 0;
+        String[] buffer = new String[numTokens];
+        for (int token = 0; token < numTokens; ++token) {
+            int start = tokenStart(token);
+            int end = tokenEnd(token);
+            // trim trailing digits, leaving at least one character
+            while (end - start > 1 && isDigit(name.charAt(end - 1))) {
+                --end;
+            }
+            if (end - start >= 3
+                    && !regionEquals(start, end, "end")
+                    && !regionEquals(start, end, "hof")
+                    && !regionEquals(start, end, "hom")) {
+                buffer[numKeywords] = name.substring(start, end);
+                ++numKeywords;
+            }
+        }
+
+        String[] result = new String[numKeywords];
+        System.arraycopy(buffer, 0, result, 0, numKeywords);
+
+        return result;
+    }
+
+    /**
+     * Test whether the specified character is an ASCII digit.
+     *
+     * @param ch the character to test
+     * @return true if it's a digit, otherwise false
+     */
+    private static boolean isDigit(char ch) {
+        boolean result = (ch >= '0' && ch <= '9');
+        return result;
+    }
+
+    /**
+     * Test whether the specified region of the name equals the specified text.
+     *
+     * @param start the index of the first character in the region (&ge;0)
+     * @param end the index after the last character in the region
+     * (&ge;start)
+     * @param text the text to compare (not null)
+     * @return true if equal, otherwise false
+     */
+    private boolean regionEquals(int start, int end, String text) {
+        int length = text.length();
+        boolean result = (end - start == length)
+                && name.regionMatches(start, text, 0, length);
+
+        return result;
+    }
+
+    /**
+     * Determine the end of the indexed token.
+     *
+     * @param token the index of the token (&ge;0, &le;numSeparators)
+     * @return the index after the token's last character
+     */
+    private int tokenEnd(int token) {
+        int result;
+        if (token == numSeparators) {
+            result = name.length();
+        } else {
+            result = separators[token];
+        }
+
+        return result;
+    }
+
+    /**
+     * Test whether the indexed token equals the specified text.
+     *
+     * @param token the index of the token (&ge;0, &le;numSeparators)
+     * @param text the text to compare (not null)
+     * @return true if equal, otherwise false
+     */
+    private boolean tokenEquals(int token, String text) {
+        boolean result = regionEquals(tokenStart(token), tokenEnd(token), text);
+        return result;
+    }
+
+    /**
+     * Determine the start of the indexed token.
+     *
+     * @param token the index of the token (&ge;0, &le;numSeparators)
+     * @return the index of the token's first character
+     */
+    private int tokenStart(int token) {
+        int result;
+        if (token == 0) {
+            result = 0;
+        } else {
+            result = separators[token - 1] + 1;
+        }
+
+        return result;
+    }
+}
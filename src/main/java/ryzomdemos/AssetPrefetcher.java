@@ -0,0 +1,241 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.ModelKey;
+import com.jme3.scene.Spatial;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Load models that are likely to be needed soon on a small pool of worker
+ * threads, so that browsing through assets doesn't hitch while each one
+ * loads.
+ * <p>
+ * A loaded model remains in the AssetManager's cache only as long as a clone
+ * of it is reachable, so the most recently prefetched clones are retained
+ * here. The number of loads queued or in progress is capped, and queued loads
+ * that are no longer wanted (because the selection moved on) are skipped.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class AssetPrefetcher {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * maximum number of loads queued or in progress
+     */
+    final private static int maxInFlight = 4;
+    /**
+     * maximum number of prefetched models to retain
+     */
+    final private static int maxRetained = 32;
+    /**
+     * number of worker threads
+     */
+    final private static int numWorkers = 2;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(AssetPrefetcher.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * asset manager shared with the render thread
+     */
+    final private AssetManager assetManager;
+    /**
+     * worker threads that perform the loads
+     */
+    final private ExecutorService pool;
+    /**
+     * recently prefetched models in access order: key = asset path
+     */
+    final private Map<String, Spatial> retained
+            = new LinkedHashMap<String, Spatial>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Spatial> e) {
+            boolean result = (size() > maxRetained);
+            return result;
+        }
+    };
+    /**
+     * asset paths evicted while their loads were in progress, whose results
+     * are stale
+     */
+    final private Set<String> evicted = new HashSet<>();
+    /**
+     * asset paths of the loads queued or in progress
+     */
+    final private Set<String> inFlight = new HashSet<>();
+    /**
+     * asset paths requested most recently
+     */
+    private Set<String> wanted = Collections.emptySet();
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a prefetcher with its own pool of daemon threads.
+     *
+     * @param assetManager the asset manager to load into (not null, alias
+     * created)
+     */
+    AssetPrefetcher(AssetManager assetManager) {
+        assert assetManager != null;
+
+        this.assetManager = assetManager;
+        ThreadFactory factory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread result = new Thread(runnable, "asset prefetcher");
+                result.setDaemon(true);
+                result.setPriority(Thread.MIN_PRIORITY);
+                return result;
+            }
+        };
+        this.pool = Executors.newFixedThreadPool(numWorkers, factory);
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Forget any prefetched copy of the specified model, for instance because
+     * it was re-exported. If a load of the model is in progress, its result
+     * will be discarded.
+     *
+     * @param assetPath the asset path of the model (not null)
+     */
+    synchronized void evict(String assetPath) {
+        retained.remove(assetPath);
+        if (inFlight.contains(assetPath)) {
+            evicted.add(assetPath);
+        }
+    }
+
+    /**
+     * Request the specified models, superseding any previous request. Models
+     * already retained or in flight aren't loaded again, and no more than
+     * {@code maxInFlight} loads are outstanding at any time.
+     *
+     * @param assetPaths the asset paths of the models, most likely first (not
+     * null, unaffected)
+     */
+    synchronized void prefetch(Collection<String> assetPaths) {
+        this.wanted = new HashSet<>(assetPaths);
+        for (String assetPath : assetPaths) {
+            if (inFlight.size() >= maxInFlight) {
+                break;
+            }
+            if (retained.get(assetPath) != null
+                    || inFlight.contains(assetPath)) {
+                continue;
+            }
+
+            inFlight.add(assetPath);
+            pool.execute(loader(assetPath));
+        }
+    }
+
+    /**
+     * Stop the worker threads and release the retained models.
+     */
+    synchronized void shutdown() {
+        pool.shutdownNow();
+        retained.clear();
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Load the specified model, unless it's no longer wanted. If the model
+     * gets evicted during the load, the result is discarded and removed from
+     * the AssetManager's cache. Invoked only on worker threads.
+     *
+     * @param assetPath the asset path of the model (not null)
+     */
+    private void load(String assetPath) {
+        synchronized (this) {
+            // An eviction before the load starts doesn't make it stale.
+            evicted.remove(assetPath);
+            if (!wanted.contains(assetPath)) {
+                inFlight.remove(assetPath);
+                return;
+            }
+        }
+
+        ModelKey modelKey = new ModelKey(assetPath);
+        Spatial model = null;
+        try {
+            model = assetManager.loadAsset(modelKey);
+        } catch (RuntimeException exception) {
+            // The render thread will report the failure, if it matters.
+            logger.log(Level.FINE, "failed to prefetch {0}: {1}",
+                    new Object[]{assetPath, exception});
+        }
+
+        synchronized (this) {
+            inFlight.remove(assetPath);
+            if (evicted.remove(assetPath)) {
+                // The model may predate a re-export, so don't keep it.
+                assetManager.deleteFromCache(modelKey);
+            } else if (model != null) {
+                retained.put(assetPath, model);
+            }
+        }
+    }
+
+    /**
+     * Create a task to load the specified model.
+     *
+     * @param assetPath the asset path of the model (not null)
+     * @return a new task
+     */
+    private Runnable loader(final String assetPath) {
+        Runnable result = new Runnable() {
+            @Override
+            public void run() {
+                load(assetPath);
+            }
+        };
+
+        return result;
+    }
+}
@@ -56,6 +56,7 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashSet;
 import java.util.List;
@@ -116,6 +117,11 @@ public class BuildCharacter extends AcorusDemo {
      * single-sided green material for the platform
      */
     private static Material greenMaterial;
+    /**
+     * character body reflected in the scene graph, or null if none or if it
+     * must be reloaded in full
+     */
+    private static Character loadedCharacter = null;
     /**
      * main Node of the loaded character model
      */
@@ -124,6 +130,12 @@ public class BuildCharacter extends AcorusDemo {
      * visualize the Skeleton of the loaded character model
      */
     private static SkeletonVisualizer sv;
+    /**
+     * loaded body-part geometries, indexed by body-part ordinal (elements may
+     * be null)
+     */
+    final private static Spatial[] partSpatials
+            = new Spatial[BodyPart.values().length];
     /**
      * AppState to manage the status overlay
      */
@@ -172,35 +184,44 @@ public class BuildCharacter extends AcorusDemo {
      * @return the duration in seconds (&ge;0)
      */
     float animDuration() {
-        float result = animChannel.getAnimMaxTime();
+        float result = 0f;
+        if (animChannel != null) { // no character has been installed yet
+            result = animChannel.getAnimMaxTime();
+        }
+
         return result;
     }
 
     /**
-     * If the named Animation is not playing, play it immediately, from the
-     * specified start time if possible (no blending).
+     * Install an assembled character in the scene. A complete character node
+     * replaces the pre-existing one. Otherwise, the assembled body parts
+     * replace the corresponding parts of the pre-existing character, keeping
+     * its skeleton, AnimControl, and channel.
      *
-     * @param name the animation name (not null)
-     * @param startTime the initial animation time (in seconds, &ge;0)
+     * @param assembly the assembly to install (not null)
+     * @return true if installed, false if the assembly was based on a
+     * character that's no longer in the scene
      */
-    void setAnimation(String name, float startTime) {
-        String playing = animChannel.getAnimationName();
-        if (!name.equals(playing)) {
-            float blendTime = 0f;
-            animChannel.setAnim(name, blendTime);
-            if (startTime < animDuration()) {
-                animChannel.setTime(startTime);
+    boolean installCharacter(CharacterAssembly assembly) {
+        Character base = assembly.base();
+        if (base != null) {
+            if (!base.equals(loadedCharacter)) {
+                return false;
             }
+            swapBodyParts(assembly);
+            loadedCharacter.copy(assembly.character());
+            return true;
         }
-    }
 
-    /**
-     * Add the configured Character to the scene, removing any pre-existing one.
-     */
-    void updateCharacter() {
         float animTime = (animChannel == null) ? 0f : animChannel.getTime();
         unloadCharacter();
-        attachCharacter();
+        characterNode = assembly.characterNode();
+        rootNode.attachChild(characterNode);
+        for (BodyPart part : BodyPart.values()) {
+            partSpatials[part.ordinal()] = assembly.part(part);
+        }
+        loadedCharacter = new Character();
+        loadedCharacter.copy(assembly.character());
 
         // Update the selected Animation and play it.
         AnimControl animControl = characterNode.getControl(AnimControl.class);
@@ -214,6 +235,51 @@ public class BuildCharacter extends AcorusDemo {
         sv = new SkeletonVisualizer(assetManager, skeletonControl);
         sv.setLineColor(ColorRGBA.Yellow);
         rootNode.addControl(sv);
+        updateFeatureVisibility();
+
+        return true;
+    }
+
+    /**
+     * Ensure that the next update reloads the whole character, for instance
+     * because assets it uses have been re-exported.
+     */
+    void invalidateCharacter() {
+        loadedCharacter = null;
+    }
+
+    /**
+     * Access the character body that's in the scene.
+     *
+     * @return the pre-existing instance, or null if none (or if it must be
+     * reloaded in full)
+     */
+    Character loadedCharacter() {
+        return loadedCharacter;
+    }
+
+    /**
+     * If the named Animation is not playing, play it immediately, from the
+     * specified start time if possible (no blending). Names unknown to the
+     * character's AnimControl are ignored, since the selection might be stale
+     * while the catalog is still loading.
+     *
+     * @param name the animation name (not null)
+     * @param startTime the initial animation time (in seconds, &ge;0)
+     */
+    void setAnimation(String name, float startTime) {
+        if (animChannel == null) { // no character has been installed yet
+            return;
+        }
+        String playing = animChannel.getAnimationName();
+        AnimControl animControl = animChannel.getControl();
+        if (!name.equals(playing) && animControl.getAnim(name) != null) {
+            float blendTime = 0f;
+            animChannel.setAnim(name, blendTime);
+            if (startTime < animDuration()) {
+                animChannel.setTime(startTime);
+            }
+        }
     }
 
     /**
@@ -225,6 +291,9 @@ public class BuildCharacter extends AcorusDemo {
         boolean showAxes = config.isVisible(Feature.Axes);
         axes.setEnabled(showAxes);
 
+        if (characterNode == null) { // no character has been installed yet
+            return;
+        }
         boolean showMeshes = config.isVisible(Feature.Meshes);
         Spatial.CullHint cullHint = showMeshes ? Spatial.CullHint.Dynamic
                 : Spatial.CullHint.Always;
@@ -255,7 +324,9 @@ public class BuildCharacter extends AcorusDemo {
         addAxes();
         addBox();
 
-        Locators.registerFilesystem(RyzomUtil.assetRoot);
+        for (String assetRoot : RyzomUtil.assetRoots) {
+            Locators.registerFilesystem(assetRoot);
+        }
 
         statusAppState = new StatusAppState();
         boolean success = stateManager.attach(statusAppState);
@@ -422,31 +493,6 @@ public class BuildCharacter extends AcorusDemo {
         viewPort.addProcessor(dlsr);
     }
 
-    /**
-     * Load the model of the configured Character and attach it to the scene.
-     */
-    private void attachCharacter() {
-        /*
-         * Load the character node
-         * (including a SkeletonControl and an AnimControl but no geometries)
-         * and attach it to the scene graph.
-         */
-        characterNode = statusAppState.attachCharacterNode(rootNode);
-
-        // Attach body parts to the character node.
-        statusAppState.attachBodyParts(characterNode);
-        /*
-         * Disable culling and configure the model to cast shadows,
-         * but not receive them.
-         */
-        List<Spatial> list
-                = MySpatial.listSpatials(characterNode, Spatial.class, null);
-        for (Spatial spatial : list) {
-            spatial.setCullHint(Spatial.CullHint.Never);
-            spatial.setShadowMode(RenderQueue.ShadowMode.Cast);
-        }
-    }
-
     /**
      * Configure the camera during startup.
      */
@@ -490,9 +536,7 @@ public class BuildCharacter extends AcorusDemo {
      */
     private void save() {
         // Create a clean copy of the model for writing.
-        Node tmpParent = new Node();
-        Node cleanCopy = statusAppState.attachCharacterNode(tmpParent);
-        statusAppState.attachBodyParts(cleanCopy);
+        Node cleanCopy = statusAppState.assembleCharacter();
         List<Spatial> allSpatials
                 = MySpatial.listSpatials(cleanCopy, Spatial.class, null);
         for (Spatial spatial : allSpatials) {
@@ -512,6 +556,33 @@ public class BuildCharacter extends AcorusDemo {
         writeTextures(cleanCopy);
     }
 
+    /**
+     * Replace the body parts whose geometry assets differ from the loaded
+     * character with assembled ones, leaving the others (and the skeleton) in
+     * place.
+     *
+     * @param assembly the assembled parts (not null, based on the loaded
+     * character)
+     */
+    private void swapBodyParts(CharacterAssembly assembly) {
+        Character character = assembly.character();
+        for (BodyPart part : BodyPart.values()) {
+            if (loadedCharacter.hasSameGeometry(part, character)) {
+                continue; // unchanged
+            }
+
+            int ordinal = part.ordinal();
+            if (partSpatials[ordinal] != null) {
+                partSpatials[ordinal].removeFromParent();
+            }
+            Spatial spatial = assembly.part(part);
+            if (spatial != null) {
+                characterNode.attachChild(spatial);
+            }
+            partSpatials[ordinal] = spatial;
+        }
+    }
+
     /**
      * If the scene contains a character model, remove it and its associated
      * visualizers.
@@ -522,6 +593,8 @@ public class BuildCharacter extends AcorusDemo {
             rootNode.removeControl(sv);
             characterNode = null;
         }
+        Arrays.fill(partSpatials, null);
+        loadedCharacter = null;
     }
 
     /**
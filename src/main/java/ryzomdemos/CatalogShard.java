@@ -0,0 +1,779 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.asset.AssetManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jme3utilities.math.MyArray;
+
+/**
+ * The portion of the catalog contributed by a single asset root, along with
+ * the summary file (shard) that describes it. Each shard is built, validated,
+ * and patched independently of the others, so adding a small asset pack
+ * doesn't invalidate the summary of a large base export.
+ * <p>
+ * Instances are thread-safe. Modifications are serialized by the shard's lock,
+ * and each one replaces the shard's {@link ShardSnapshot}, which readers
+ * access without locking. A shard never holds its lock while publishing the
+ * catalog.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class CatalogShard {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(CatalogShard.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * fingerprint of the export directory in the state described by the lists,
+     * or null if unknown
+     */
+    private DirectoryFingerprint fingerprint = null;
+    /**
+     * manifest of all files in the export directory: key = filename
+     */
+    final private Map<String, ManifestEntry> manifest = new TreeMap<>();
+    /**
+     * summary whose manifest hasn't been decoded yet, or null if none
+     */
+    private SummaryView summary = null;
+    /**
+     * most recent snapshot of the lists (replaced, never modified, while
+     * holding the shard's lock)
+     */
+    private volatile ShardSnapshot snapshot = ShardSnapshot.empty;
+    /**
+     * filesystem path to the asset root
+     */
+    final private String assetRoot;
+    /**
+     * filesystem path to the summary file
+     */
+    final private String summaryPathname;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an empty shard for the specified asset root. The summary
+     * file is named after the root, so the shard of a given root is found
+     * regardless of the order in which roots are configured.
+     *
+     * @param assetRoot the filesystem path to the asset root (not null, not
+     * empty)
+     */
+    CatalogShard(String assetRoot) {
+        assert assetRoot != null;
+        assert !assetRoot.isEmpty();
+
+        this.assetRoot = assetRoot;
+        String canonical = Paths.get(assetRoot).toAbsolutePath().normalize()
+                .toString();
+        this.summaryPathname = String.format(
+                "./ryzom-summary-%08x.bin", canonical.hashCode());
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Return the filesystem path to the asset root.
+     *
+     * @return the path (not null, not empty)
+     */
+    String assetRoot() {
+        return assetRoot;
+    }
+
+    /**
+     * Encode the fingerprint, the lists of geometries, animation names, and
+     * keywords, counterpart tables, keyword indices, and the manifest as a
+     * version-6 summary.
+     *
+     * @return a new buffer, flipped and ready to be written
+     * @throws IOException if the summary read is corrupt
+     */
+    synchronized ByteBuffer encodeMaps() throws IOException {
+        assert fingerprint != null;
+        decodeManifest();
+        ShardSnapshot lists = snapshot;
+
+        SummaryWriter writer = new SummaryWriter();
+        for (BodyPart part : BodyPart.values()) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                int section = SummaryView.geometrySection(part, genderCode);
+                writer.addNames(
+                        section, lists.knownGeometries(part, genderCode));
+            }
+            int section = SummaryView.counterpartSection(part);
+            writer.addCounterparts(section, lists.counterparts(part));
+        }
+
+        for (String groupName : RyzomUtil.groupNameArray) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                int section
+                        = SummaryView.animationSection(groupName, genderCode);
+                FrontCodedDictionary animationNames
+                        = lists.knownAnimations(groupName, genderCode);
+                writer.addNames(section, animationNames);
+
+                section = SummaryView.keywordSection(groupName, genderCode);
+                FrontCodedDictionary keywords
+                        = lists.knownKeywords(groupName, genderCode);
+                writer.addNames(section, keywords);
+
+                section = SummaryView.keywordIndexSection(
+                        groupName, genderCode);
+                writer.addKeywordIndex(
+                        section, lists.keywordIndex(groupName, genderCode));
+            }
+        }
+
+        writer.addManifest(manifest);
+        ByteBuffer result = writer.encode(fingerprint);
+
+        return result;
+    }
+
+    /**
+     * Populate this shard as quickly as possible. If its summary file is
+     * current, simply read it. If it's stale, re-analyze only those files that
+     * were added, removed, or modified since it was written. Otherwise,
+     * preload all assets. Write a new summary file unless the old one was
+     * current.
+     *
+     * @param numWorkers the number of worker threads for a full preload
+     * (&ge;1)
+     * @param listener the listener to notify of progress (not null)
+     */
+    void loadMaps(int numWorkers, ScanListener listener) {
+        assert numWorkers >= 1 : numWorkers;
+
+        boolean isCurrent = readMaps();
+        RyzomUtil.publishCatalog();
+        if (isCurrent) {
+            return;
+        }
+
+        boolean hasManifest;
+        synchronized (this) {
+            hasManifest = !manifest.isEmpty();
+        }
+        if (hasManifest) { // stale summary
+            updateMaps(listener);
+        } else { // no usable summary
+            preloadAssetsInParallel(numWorkers, listener);
+        }
+        writeMaps();
+    }
+
+    /**
+     * Preload all assets in the export directory. Assign each geometries asset
+     * to a list based on its body part and gender. Also build lists of
+     * animation names and keywords for each skeletal group and gender.
+     *
+     * @param assetManager the assetManager to use (not null)
+     * @param listener the listener to notify of progress (not null)
+     */
+    void preloadAssets(AssetManager assetManager, ScanListener listener) {
+        DirectoryFingerprint newFingerprint = fingerprintExportDirectory();
+        String[] fileNames = listExportedFiles();
+        int numFiles = fileNames.length;
+        ScanProgress progress = new ScanProgress(numFiles, listener);
+        clearMaps();
+        RyzomUtil.publishCatalog();
+
+        ScanResult scanResult = new ScanResult(this);
+        for (String fileName : fileNames) {
+            scanResult.analyze(fileName, assetManager);
+            progress.increment();
+        }
+
+        Collection<String> noFiles = Collections.emptySet();
+        applyScan(noFiles, scanResult, newFingerprint);
+        RyzomUtil.publishCatalog();
+    }
+
+    /**
+     * Preload all assets in the export directory using a pool of worker
+     * threads, each with its own private AssetManager. The resulting lists are
+     * identical to those produced by
+     * {@link #preloadAssets(com.jme3.asset.AssetManager,
+     * ryzomdemos.ScanListener)}.
+     *
+     * @param numWorkers the number of worker threads (&ge;1)
+     * @param listener the listener to notify of progress (not null)
+     */
+    void preloadAssetsInParallel(int numWorkers, ScanListener listener) {
+        assert numWorkers >= 1 : numWorkers;
+
+        DirectoryFingerprint newFingerprint = fingerprintExportDirectory();
+        String[] fileNames = listExportedFiles();
+        int numFiles = fileNames.length;
+        ScanProgress progress = new ScanProgress(numFiles, listener);
+        ThreadLocal<AssetManager> workerManagers
+                = new ThreadLocal<AssetManager>() {
+            @Override
+            protected AssetManager initialValue() {
+                AssetManager result = RyzomUtil.createAssetManager(assetRoot);
+                return result;
+            }
+        };
+        ScanTask task = new ScanTask(
+                this, fileNames, 0, numFiles, workerManagers, progress);
+        clearMaps();
+        RyzomUtil.publishCatalog();
+
+        ForkJoinPool pool = new ForkJoinPool(numWorkers);
+        ScanResult scanResult;
+        try {
+            scanResult = pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+
+        Collection<String> noFiles = Collections.emptySet();
+        applyScan(noFiles, scanResult, newFingerprint);
+        RyzomUtil.publishCatalog();
+    }
+
+    /**
+     * Add the animation names of a newly analyzed animation asset to this
+     * shard, replacing any names previously known for the same skeletal group
+     * and gender. Invoked on worker threads during a scan.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param names the animation names (not null, in lexicographic order,
+     * unaffected)
+     */
+    void publishAnimations(
+            String groupName, String genderCode, String[] names) {
+        assert MyArray.isSorted(names);
+
+        synchronized (this) {
+            this.snapshot
+                    = withAnimations(snapshot, groupName, genderCode, names);
+        }
+        RyzomUtil.publishCatalog();
+    }
+
+    /**
+     * Add a newly classified geometry asset to this shard, so it becomes
+     * selectable immediately. Invoked on worker threads during a scan.
+     *
+     * @param part the asset's body part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @param assetName the name of the asset (not null)
+     */
+    void publishGeometry(BodyPart part, String genderCode, String assetName) {
+        boolean isNew;
+        synchronized (this) {
+            FrontCodedDictionary oldNames
+                    = snapshot.knownGeometries(part, genderCode);
+            FrontCodedDictionary newNames = oldNames.with(assetName);
+            isNew = (newNames != oldNames);
+            if (isNew) {
+                this.snapshot
+                        = snapshot.withGeometries(part, genderCode, newNames);
+            }
+        }
+        if (isNew) {
+            RyzomUtil.publishCatalog();
+        }
+    }
+
+    /**
+     * Attempt to quickly populate this shard by reading its summary file into
+     * memory. The fingerprint in the file's header is compared with the
+     * current state of the export directory. Either way, each list is decoded
+     * on first access, but if the fingerprints differ, the manifest is decoded
+     * right away (so the lists can be patched) and the summary isn't trusted.
+     *
+     * @return true if the summary was read and is current, otherwise false
+     */
+    synchronized boolean readMaps() {
+        clearMaps();
+
+        Path path = Paths.get(summaryPathname);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+
+        boolean result;
+        try (FileChannel channel
+                = FileChannel.open(path, StandardOpenOption.READ)) {
+            result = readMaps(channel);
+        } catch (IOException exception) {
+            clearMaps();
+            return false;
+        }
+
+        return result;
+    }
+
+    /**
+     * Reclassify the specified files after they changed on disk, publish the
+     * catalog, and (if any were reclassified) update the summary file. Files
+     * that no longer exist are removed from the lists. Files whose contents
+     * are unchanged are ignored.
+     *
+     * @param fileNames the filenames to reclassify, or null to compare every
+     * file in the export directory or the manifest (unaffected)
+     * @param listener the listener to notify of progress (not null)
+     * @return a new set of filenames of files that were added, modified, or
+     * removed (not null, may be empty)
+     */
+    Set<String> reloadFiles(
+            Collection<String> fileNames, ScanListener listener) {
+        DirectoryFingerprint newFingerprint = fingerprintExportDirectory();
+        Collection<String> candidates
+                = (fileNames == null) ? listKnownFiles() : fileNames;
+        Set<String> removedFiles = new TreeSet<>();
+        List<String> changedFiles = new ArrayList<>();
+        compareWithManifest(candidates, removedFiles, changedFiles);
+
+        Set<String> result = new TreeSet<>(removedFiles);
+        result.addAll(changedFiles);
+        if (result.isEmpty()) {
+            /*
+             * Only the fingerprint changed, so don't rewrite the summary.
+             * The next run will find it stale but rescan nothing.
+             */
+            synchronized (this) {
+                this.fingerprint = newFingerprint;
+            }
+        } else {
+            rescan(removedFiles, changedFiles, newFingerprint, listener);
+            writeMaps();
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the most recent snapshot of this shard's lists. Doesn't block.
+     *
+     * @return the pre-existing immutable snapshot (not null)
+     */
+    ShardSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Attempt to write this shard to its summary file. The summary is written
+     * to a temporary file in the same directory, which then replaces the
+     * summary file atomically (if the filesystem supports it) so an
+     * interrupted write never leaves a truncated summary behind. A failure is
+     * logged.
+     *
+     * @return true if successful, otherwise false
+     */
+    synchronized boolean writeMaps() {
+        assert fingerprint != null;
+
+        Path path = Paths.get(summaryPathname).toAbsolutePath();
+        Path tempPath = null;
+        try {
+            ByteBuffer buffer = encodeMaps();
+            tempPath = Files.createTempFile(
+                    path.getParent(), "ryzom-summary", ".tmp");
+            try (FileChannel channel = FileChannel.open(
+                    tempPath, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(
+                        tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "failed to write {0}: {1}",
+                    new Object[]{path, exception});
+            if (tempPath != null) {
+                tempPath.toFile().delete();
+            }
+            return false;
+        }
+
+        return true;
+    }
+    // *************************************************************************
+    // Object methods
+
+    /**
+     * Represent this shard as a text string.
+     *
+     * @return descriptive string of text (not null, not empty)
+     */
+    @Override
+    public String toString() {
+        String result = assetRoot + " -> " + summaryPathname;
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Patch the lists of geometries, animation names, and keywords (and the
+     * manifest) by removing the contributions of the specified files and then
+     * adding the results of a scan. Lists that aren't altered keep their
+     * dictionaries, so snapshots derived from them can be reused.
+     *
+     * @param removedFiles the filenames of the files to remove (not null,
+     * unaffected)
+     * @param scanResult the results to add (not null, unaffected)
+     * @param newFingerprint the fingerprint of the export directory after the
+     * scan (not null, alias created)
+     */
+    synchronized private void applyScan(Collection<String> removedFiles,
+            ScanResult scanResult, DirectoryFingerprint newFingerprint) {
+        ShardSnapshot lists = snapshot;
+        for (String genderCode : RyzomUtil.genderCodeArray) {
+            for (BodyPart part : BodyPart.values()) {
+                FrontCodedDictionary oldNames
+                        = lists.knownGeometries(part, genderCode);
+                Set<String> names
+                        = new TreeSet<>(Arrays.asList(oldNames.toArray()));
+                boolean isAltered = false;
+                for (String fileName : removedFiles) {
+                    String assetName = fileName.replace(".j3o", "");
+                    isAltered |= names.remove(assetName);
+                }
+                String[] added = scanResult.geometries(part, genderCode);
+                names.addAll(Arrays.asList(added));
+                isAltered |= (names.size() != oldNames.size());
+                if (!isAltered) {
+                    continue;
+                }
+
+                String[] newArray = new String[names.size()];
+                names.toArray(newArray);
+                assert MyArray.isSorted(newArray);
+                FrontCodedDictionary newNames
+                        = FrontCodedDictionary.of(newArray);
+                lists = lists.withGeometries(part, genderCode, newNames);
+            }
+        }
+
+        for (String groupName : RyzomUtil.groupNameArray) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                String fileName = String.format(
+                        "animations_%s_ho%s.j3o", groupName, genderCode);
+                String[] names = scanResult.animations(groupName, genderCode);
+                String[] oldNames
+                        = lists.knownAnimations(groupName, genderCode)
+                                .toArray();
+                if (names != null) {
+                    if (!Arrays.equals(names, oldNames)) {
+                        lists = withAnimations(
+                                lists, groupName, genderCode, names);
+                    }
+                } else if (removedFiles.contains(fileName)) {
+                    lists = withAnimations(
+                            lists, groupName, genderCode, new String[0]);
+                }
+            }
+        }
+
+        manifest.keySet().removeAll(removedFiles);
+        manifest.putAll(scanResult.manifest());
+        this.snapshot = lists;
+        this.fingerprint = newFingerprint;
+    }
+
+    /**
+     * Empty the lists and the manifest.
+     */
+    synchronized private void clearMaps() {
+        manifest.clear();
+        this.fingerprint = null;
+        this.snapshot = ShardSnapshot.empty;
+        this.summary = null;
+    }
+
+    /**
+     * Compare the specified files with the manifest, sorting out those that
+     * were added, removed, or modified since it was recorded. Files that were
+     * merely touched have their manifest entries refreshed.
+     *
+     * @param fileNames the filenames to compare (not null, unaffected)
+     * @param removedFiles storage for the filenames of removed and modified
+     * files (not null, added to)
+     * @param changedFiles storage for the filenames of added and modified
+     * files (not null, added to)
+     */
+    synchronized private void compareWithManifest(
+            Collection<String> fileNames, Set<String> removedFiles,
+            List<String> changedFiles) {
+        try {
+            decodeManifest();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        String directoryPath = assetRoot + RyzomUtil.assetPathPrefix;
+        for (String fileName : fileNames) {
+            ManifestEntry oldEntry = manifest.get(fileName);
+            File file = new File(directoryPath + fileName);
+            if (!file.isFile()) {
+                if (oldEntry != null) { // removed
+                    removedFiles.add(fileName);
+                }
+
+            } else if (oldEntry == null) { // added
+                changedFiles.add(fileName);
+
+            } else if (!oldEntry.matchesAttributes(file)) {
+                ManifestEntry newEntry = ManifestEntry.describe(file);
+                if (newEntry.size() == oldEntry.size()
+                        && newEntry.hash() == oldEntry.hash()) {
+                    // touched but otherwise unmodified
+                    manifest.put(fileName, newEntry);
+                } else { // modified
+                    removedFiles.add(fileName);
+                    changedFiles.add(fileName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode the manifest of the summary read, if it hasn't been decoded
+     * already.
+     *
+     * @throws IOException if the summary is corrupt
+     */
+    private void decodeManifest() throws IOException {
+        if (summary != null) {
+            summary.readManifest(manifest);
+            this.summary = null;
+        }
+    }
+
+    /**
+     * Fingerprint the export directory in its current state.
+     *
+     * @return a new instance
+     */
+    private DirectoryFingerprint fingerprintExportDirectory() {
+        String directoryPath = assetRoot + RyzomUtil.assetPathPrefix;
+        DirectoryFingerprint result = DirectoryFingerprint.of(directoryPath);
+
+        return result;
+    }
+
+    /**
+     * Enumerate all files in the export directory.
+     *
+     * @return a new array of filenames (not null)
+     */
+    private String[] listExportedFiles() {
+        String directoryPath = assetRoot + RyzomUtil.assetPathPrefix;
+        File directory = new File(directoryPath);
+        assert directory.isDirectory() : directory.getAbsolutePath();
+        String[] result = directory.list();
+
+        assert result != null;
+        return result;
+    }
+
+    /**
+     * Enumerate the files in the export directory together with those in the
+     * manifest, so removed files are included.
+     *
+     * @return a new set of filenames (not null)
+     */
+    private Set<String> listKnownFiles() {
+        Set<String> result = new TreeSet<>();
+        Collections.addAll(result, listExportedFiles());
+        synchronized (this) {
+            try {
+                decodeManifest();
+            } catch (IOException exception) {
+                throw new RuntimeException(exception);
+            }
+            result.addAll(manifest.keySet());
+        }
+
+        return result;
+    }
+
+    /**
+     * Read the specified summary into a heap buffer with a single bulk read
+     * and validate its header. The lists of geometries, animation names, and
+     * keywords are decoded on first access. Unless the summary is current,
+     * its manifest is decoded immediately.
+     * <p>
+     * The summary isn't memory-mapped, because a mapping stays open until the
+     * buffer is garbage collected, and on some platforms (such as Windows) a
+     * mapped file can't be replaced, so {@link #writeMaps()} would fail.
+     *
+     * @param channel the channel to read (not null)
+     * @return true if the fingerprint in the header matches the current state
+     * of the export directory, otherwise false
+     * @throws IOException if the summary can't be read or is invalid
+     */
+    private boolean readMaps(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("summary too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("truncated summary");
+            }
+        }
+        buffer.flip();
+
+        SummaryView read = new SummaryView(buffer);
+        this.summary = read;
+        this.fingerprint = read.fingerprint();
+        this.snapshot = new ShardSnapshot(read);
+        boolean result = fingerprint.equals(fingerprintExportDirectory());
+        if (!result) {
+            decodeManifest();
+        }
+
+        return result;
+    }
+
+    /**
+     * Re-analyze the specified files, patch the lists, and publish the
+     * catalog.
+     *
+     * @param removedFiles the filenames of the files whose old contributions
+     * should be removed (not null, unaffected)
+     * @param changedFiles the filenames of the files to analyze (not null,
+     * unaffected)
+     * @param newFingerprint the fingerprint of the export directory (not
+     * null, alias created)
+     * @param listener the listener to notify of progress (not null)
+     */
+    private void rescan(Set<String> removedFiles, List<String> changedFiles,
+            DirectoryFingerprint newFingerprint, ScanListener listener) {
+        AssetManager assetManager = RyzomUtil.createAssetManager(assetRoot);
+        int numFiles = changedFiles.size();
+        ScanProgress progress = new ScanProgress(numFiles, listener);
+        ScanResult scanResult = new ScanResult(this);
+        for (String fileName : changedFiles) {
+            scanResult.analyze(fileName, assetManager);
+            progress.increment();
+        }
+        applyScan(removedFiles, scanResult, newFingerprint);
+        RyzomUtil.publishCatalog();
+    }
+
+    /**
+     * Compare the export directory with the manifest and re-analyze only those
+     * files that were added, removed, or modified since it was recorded.
+     *
+     * @param listener the listener to notify of progress (not null)
+     */
+    private void updateMaps(ScanListener listener) {
+        DirectoryFingerprint newFingerprint = fingerprintExportDirectory();
+        Set<String> fileNames = listKnownFiles();
+        Set<String> removedFiles = new TreeSet<>();
+        List<String> changedFiles = new ArrayList<>();
+        compareWithManifest(fileNames, removedFiles, changedFiles);
+
+        if (removedFiles.isEmpty() && changedFiles.isEmpty()) {
+            synchronized (this) {
+                this.fingerprint = newFingerprint;
+            }
+            return;
+        }
+
+        rescan(removedFiles, changedFiles, newFingerprint, listener);
+    }
+
+    /**
+     * Derive a snapshot with the specified animation names for the specified
+     * skeletal group and gender, along with the keywords they contain and the
+     * index that relates them.
+     *
+     * @param base the snapshot to derive from (not null, unaffected)
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param names the animation names (not null, in lexicographic order,
+     * unaffected)
+     * @return a new snapshot
+     */
+    private static ShardSnapshot withAnimations(ShardSnapshot base,
+            String groupName, String genderCode, String[] names) {
+        Set<String> keywordSet = new TreeSet<>();
+        for (String name : names) {
+            AssetName parsed = RyzomUtil.parseAssetName(name);
+            Collections.addAll(keywordSet, parsed.keywords());
+        }
+        int numKeywords = keywordSet.size();
+        String[] keywords = new String[numKeywords];
+        keywordSet.toArray(keywords);
+        assert MyArray.isSorted(keywords);
+
+        FrontCodedDictionary animations = FrontCodedDictionary.of(names);
+        FrontCodedDictionary keywordNames = FrontCodedDictionary.of(keywords);
+        KeywordIndex index = KeywordIndex.build(names, keywords);
+        ShardSnapshot result = base.withAnimations(
+                groupName, genderCode, animations, keywordNames, index);
+
+        return result;
+    }
+}
@@ -28,7 +28,6 @@ package ryzomdemos;
 
 import com.jme3.asset.ModelKey;
 import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.logging.Logger;
 import jme3utilities.math.MyMath;
 
@@ -51,10 +50,10 @@ class Character implements Cloneable {
     // fields
 
     /**
-     * geometry assets used in the character (one asset per body part, values
-     * may be null)
+     * IDs of the geometry assets used in the character, indexed by body-part
+     * ordinal (elements may be noId)
      */
-    private EnumMap<BodyPart, String> assets = new EnumMap<>(BodyPart.class);
+    private int[] geometryIds = newGeometryIds();
     /**
      * 1-letter code for the character's gender ("f" for female or "m" for male)
      */
@@ -69,12 +68,25 @@ class Character implements Cloneable {
     /**
      * Update the geometry assets to match the character's gender. Parts without
      * an equivalent asset for that gender will be silently removed.
+     * Cataloged assets are looked up in the catalog's counterpart tables;
+     * only assets that aren't cataloged (yet) are checked in the filesystem.
      */
     void adjustAssetsForGender() {
+        AssetCatalog catalog = RyzomUtil.catalog();
+        String otherGender = isMale() ? "f" : "m";
         for (BodyPart part : BodyPart.values()) {
-            String assetName = geometryName(part);
-            if (assetName != null) {
-                assetName = adjustForGender(assetName);
+            int ordinal = part.ordinal();
+            int id = geometryIds[ordinal];
+            if (id == AssetCatalog.noId
+                    || catalog.geometryRank(part, gender, id) >= 0) {
+                continue; // nothing to adjust
+            }
+
+            if (catalog.geometryRank(part, otherGender, id) >= 0) {
+                geometryIds[ordinal]
+                        = catalog.geometryCounterpart(part, gender, id);
+            } else {
+                String assetName = adjustForGender(geometryName(part));
                 if (!RyzomUtil.assetExists(assetName)) {
                     assetName = null;
                 }
@@ -91,20 +103,8 @@ class Character implements Cloneable {
      * @return an adjusted name (not null)
      */
     String adjustForGender(String name) {
-        String result = name;
-        boolean isFemale = isFemale();
-        boolean isMale = isMale();
-
-        // Make at most one substitution.
-        if (isFemale && result.contains("_hom_")) {
-            result = result.replace("_hom_", "_hof_");
-        } else if (isMale && result.contains("_hof_")) {
-            result = result.replace("_hof_", "_hom_");
-        } else if (isFemale && result.contains("_h_")) {
-            result = result.replace("_h_", "_f_");
-        } else if (isMale && result.contains("_f_")) {
-            result = result.replace("_f_", "_h_");
-        }
+        AssetName parsed = RyzomUtil.parseAssetName(name);
+        String result = parsed.forGender(gender);
 
         return result;
     }
@@ -117,28 +117,17 @@ class Character implements Cloneable {
      * @param amount the number of assets to advance, including null
      */
     void advanceAssetFor(BodyPart part, int amount) {
-        String[] known = RyzomUtil.knownGeometries(part, gender);
-        String selected = assets.get(part);
-
-        int index;
-        if (selected == null) {
-            index = -1;
-        } else {
-            index = Arrays.binarySearch(known, selected);
-            if (index < 0) {
-                index = -1;
-            }
-        }
-        int numKnown = known.length;
-        assert numKnown > 0 : numKnown;
-        index = MyMath.modulo(index + amount, numKnown + 1);
-        if (index == numKnown) {
-            selected = null;
-        } else {
-            selected = known[index];
-        }
+        geometryIds[part.ordinal()] = neighborId(part, amount);
+    }
 
-        setGeometry(part, selected);
+    /**
+     * Read the name of the character's animation asset.
+     *
+     * @return the asset name (without ".j3o", not null)
+     */
+    String animationAssetName() {
+        String result = String.format("animations_%s_ho%s", group, gender);
+        return result;
     }
 
     /**
@@ -147,8 +136,8 @@ class Character implements Cloneable {
      * @param other (not null)
      */
     void copy(Character other) {
-        assets.clear();
-        assets.putAll(other.assets);
+        System.arraycopy(other.geometryIds, 0, geometryIds, 0,
+                geometryIds.length);
 
         gender = other.genderCode();
         group = other.groupName();
@@ -167,10 +156,15 @@ class Character implements Cloneable {
      * Read the name of the geometry asset for the specified body part.
      *
      * @param part (not null)
-     * @return the asset name (without ".j3o")
+     * @return the asset name (without ".j3o") or null if none
      */
     String geometryName(BodyPart part) {
-        String result = assets.get(part);
+        int id = geometryIds[part.ordinal()];
+        String result = null;
+        if (id != AssetCatalog.noId) {
+            result = AssetCatalog.geometryName(part, id);
+        }
+
         return result;
     }
 
@@ -183,6 +177,21 @@ class Character implements Cloneable {
         return group;
     }
 
+    /**
+     * Test whether the character uses the same geometry asset (or lack
+     * thereof) as another character for the specified body part.
+     *
+     * @param part (not null)
+     * @param other the character to compare with (not null, unaffected)
+     * @return true if the same, otherwise false
+     */
+    boolean hasSameGeometry(BodyPart part, Character other) {
+        int ordinal = part.ordinal();
+        boolean result = (geometryIds[ordinal] == other.geometryIds[ordinal]);
+
+        return result;
+    }
+
     /**
      * Test whether the character includes the specified body part.
      *
@@ -190,7 +199,7 @@ class Character implements Cloneable {
      * @return true if included, false if omitted
      */
     boolean includes(BodyPart part) {
-        if (assets.get(part) == null) {
+        if (geometryIds[part.ordinal()] == AssetCatalog.noId) {
             return false;
         } else {
             return true;
@@ -223,8 +232,7 @@ class Character implements Cloneable {
      * @return a new key
      */
     ModelKey makeAnimationAssetKey() {
-        String fileName
-                = String.format("animations_%s_ho%s.j3o", group, gender);
+        String fileName = animationAssetName() + ".j3o";
         String assetPath = RyzomUtil.assetPathPrefix + fileName;
         ModelKey key = new ModelKey(assetPath);
 
@@ -246,15 +254,39 @@ class Character implements Cloneable {
         return key;
     }
 
+    /**
+     * Predict which geometry asset would be selected for the specified body
+     * part by {@link #advanceAssetFor(ryzomdemos.BodyPart, int)}, without
+     * altering the character.
+     *
+     * @param part (not null)
+     * @param amount the number of assets to advance, including null
+     * @return the asset name (without ".j3o") or null if none
+     */
+    String neighborGeometry(BodyPart part, int amount) {
+        int id = neighborId(part, amount);
+        String result = null;
+        if (id != AssetCatalog.noId) {
+            result = AssetCatalog.geometryName(part, id);
+        }
+
+        return result;
+    }
+
     /**
      * Pseudo-randomly alter the geometry asset for the specified body part.
+     * If no assets are known for the part, the selection is left unchanged.
      *
      * @param part (not null)
      */
     void randomize(BodyPart part) {
-        String[] known = RyzomUtil.knownGeometries(part, gender);
-        String assetName = (String) RyzomUtil.generator.pick(known);
-        setGeometry(part, assetName);
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int numKnown = catalog.numGeometries(part, gender);
+        if (numKnown > 0) {
+            int rank = RyzomUtil.generator.nextInt(numKnown);
+            geometryIds[part.ordinal()]
+                    = catalog.geometryAt(part, gender, rank);
+        }
     }
 
     /**
@@ -294,10 +326,12 @@ class Character implements Cloneable {
      * @return this instance for chaining
      */
     Character setGeometry(BodyPart part, String assetName) {
+        int id = AssetCatalog.noId;
         if (assetName != null) {
             assert RyzomUtil.assetExists(assetName);
+            id = AssetCatalog.geometryId(part, assetName);
         }
-        assets.put(part, assetName);
+        geometryIds[part.ordinal()] = id;
 
         return this;
     }
@@ -338,6 +372,26 @@ class Character implements Cloneable {
             setGroup("ca");
         }
     }
+
+    /**
+     * Test whether the character uses the named asset, either for a body part
+     * or for its skeleton and animations.
+     *
+     * @param assetName the name of the asset (without ".j3o", not null)
+     * @return true if used, otherwise false
+     */
+    boolean usesAsset(String assetName) {
+        if (assetName.equals(animationAssetName())) {
+            return true;
+        }
+        for (BodyPart part : BodyPart.values()) {
+            if (assetName.equals(geometryName(part))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
     // *************************************************************************
     // Object methods
 
@@ -350,7 +404,7 @@ class Character implements Cloneable {
     @Override
     public Character clone() throws CloneNotSupportedException {
         Character clone = (Character) super.clone();
-        assets = new EnumMap<>(assets);
+        clone.geometryIds = geometryIds.clone();
 
         return clone;
     }
@@ -371,7 +425,7 @@ class Character implements Cloneable {
             Character other = (Character) otherObject;
             result = other.genderCode().equals(gender)
                     && other.groupName().equals(group)
-                    && other.assets.equals(assets);
+                    && Arrays.equals(other.geometryIds, geometryIds);
 
         } else {
             result = false;
@@ -379,4 +433,47 @@ class Character implements Cloneable {
 
         return result;
     }
+
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Find the geometry asset the specified number of positions away from the
+     * selected one for the specified body part, counting the absence of an
+     * asset as a position.
+     *
+     * @param part (not null)
+     * @param amount the number of assets to advance, including null
+     * @return the asset ID (&ge;0) or noId for none
+     */
+    private int neighborId(BodyPart part, int amount) {
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int id = geometryIds[part.ordinal()];
+
+        int rank = AssetCatalog.noId;
+        if (id != AssetCatalog.noId) {
+            rank = catalog.geometryRank(part, gender, id);
+        }
+        // numKnown may be 0 while the catalog is loading
+        int numKnown = catalog.numGeometries(part, gender);
+        rank = MyMath.modulo(rank + amount, numKnown + 1);
+        int result = AssetCatalog.noId;
+        if (rank < numKnown) {
+            result = catalog.geometryAt(part, gender, rank);
+        }
+
+        return result;
+    }
+
+    /**
+     * Create an array of geometry IDs for a character with no body parts.
+     *
+     * @return a new array, filled with noId
+     */
+    private static int[] newGeometryIds() {
+        int[] result = new int[BodyPart.values().length];
+        Arrays.fill(result, AssetCatalog.noId);
+
+        return result;
+    }
 }
@@ -0,0 +1,348 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.ModelKey;
+import com.jme3.renderer.queue.RenderQueue;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jme3utilities.MySpatial;
+
+/**
+ * Assemble characters on a background thread, so the render thread never
+ * waits for assets to load. Each request supersedes the previous one: a
+ * superseded build that hasn't started is cancelled, and one in progress is
+ * abandoned after its current load. The render thread polls for the latest
+ * completed assembly once per frame.
+ * <p>
+ * The animation asset is loaded only once for each skeletal group and gender,
+ * into a {@link CharacterTemplate} whose animations are shared by every
+ * character node.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class CharacterAssembler {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(CharacterAssembler.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * asset manager shared with the render thread
+     */
+    final private AssetManager assetManager;
+    /**
+     * most recent assembly not yet polled, or null if none
+     */
+    final private AtomicReference<CharacterAssembly> completed
+            = new AtomicReference<>(null);
+    /**
+     * number of requests made so far, which identifies the latest one
+     */
+    final private AtomicInteger numRequests = new AtomicInteger(0);
+    /**
+     * single thread that performs the builds
+     */
+    final private ExecutorService executor;
+    /**
+     * build of the latest request, or null if none (accessed only by the
+     * requesting thread)
+     */
+    private Future<?> pending = null;
+    /**
+     * loaded character nodes, for creating instances: key = name of the
+     * animation asset (guarded by its own lock)
+     */
+    final private Map<String, CharacterTemplate> templates = new HashMap<>();
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an assembler with its own daemon thread.
+     *
+     * @param assetManager the asset manager to load from (not null, alias
+     * created)
+     */
+    CharacterAssembler(AssetManager assetManager) {
+        assert assetManager != null;
+
+        this.assetManager = assetManager;
+        ThreadFactory factory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread result = new Thread(runnable, "character assembler");
+                result.setDaemon(true);
+                return result;
+            }
+        };
+        this.executor = Executors.newSingleThreadExecutor(factory);
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Assemble a complete node for the specified character on the current
+     * thread, without configuring its render hints.
+     *
+     * @param character the character body (not null, unaffected)
+     * @return a new Node, not attached to any scene graph
+     */
+    Node assemble(Character character) {
+        Node result = instantiate(character);
+        for (BodyPart part : BodyPart.values()) {
+            Spatial spatial = loadPart(character, part);
+            if (spatial != null) {
+                result.attachChild(spatial);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Forget the template for the named animation asset, for instance because
+     * it was re-exported.
+     *
+     * @param assetName the name of the animation asset (without ".j3o", not
+     * null)
+     */
+    void evictTemplate(String assetName) {
+        synchronized (templates) {
+            templates.remove(assetName);
+        }
+    }
+
+    /**
+     * Take the most recently completed assembly, if any. Assemblies of
+     * superseded requests are never returned. Invoked only on the thread that
+     * makes requests, so no request can intervene between the check and the
+     * return.
+     *
+     * @return the assembly (not null) or null if none is ready
+     */
+    CharacterAssembly poll() {
+        CharacterAssembly result = completed.getAndSet(null);
+        if (result != null && isSuperseded(result.requestId())) {
+            result = null; // a stale assembly slipped past build()
+        }
+
+        return result;
+    }
+
+    /**
+     * Request an assembly of the specified character, superseding any
+     * previous request. If the character has the same gender and skeletal
+     * group as the base, only the body parts that differ are assembled.
+     *
+     * @param character the character body to assemble (not null, unaffected)
+     * @param base the character body in the scene, or null if none (or if it
+     * must be replaced in full) (unaffected)
+     */
+    void request(Character character, Character base) {
+        final Character target = new Character();
+        target.copy(character);
+        final Character baseCopy;
+        if (base != null && base.animationAssetName()
+                .equals(character.animationAssetName())) {
+            baseCopy = new Character();
+            baseCopy.copy(base);
+        } else {
+            baseCopy = null;
+        }
+
+        final int requestId = numRequests.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                build(requestId, target, baseCopy);
+            }
+        };
+        this.pending = executor.submit(task);
+    }
+
+    /**
+     * Stop the background thread, abandoning any build in progress.
+     */
+    void shutdown() {
+        numRequests.incrementAndGet();
+        executor.shutdownNow();
+        completed.set(null);
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Build the specified character and offer the result to the render
+     * thread, unless the request gets superseded first. Invoked only on the
+     * assembler thread.
+     *
+     * @param requestId the ID of the request
+     * @param character the character body to assemble (not null, unaffected)
+     * @param base the character body the parts will replace, or null to
+     * assemble a complete node (unaffected)
+     */
+    private void build(int requestId, Character character, Character base) {
+        int numParts = BodyPart.values().length;
+        Spatial[] parts = new Spatial[numParts];
+        Node characterNode = null;
+        try {
+            if (base == null) {
+                characterNode = instantiate(character);
+            }
+            for (BodyPart part : BodyPart.values()) {
+                if (isSuperseded(requestId)) {
+                    return;
+                }
+                if (base != null && base.hasSameGeometry(part, character)) {
+                    continue; // unchanged
+                }
+
+                Spatial spatial = loadPart(character, part);
+                if (spatial != null) {
+                    configureHints(spatial);
+                    if (characterNode != null) {
+                        characterNode.attachChild(spatial);
+                    }
+                }
+                parts[part.ordinal()] = spatial;
+            }
+        } catch (RuntimeException exception) {
+            // Perhaps an asset was removed. Keep the old character.
+            logger.log(Level.WARNING, "failed to assemble character",
+                    exception);
+            return;
+        }
+
+        if (characterNode != null) {
+            configureHints(characterNode);
+        }
+        CharacterAssembly assembly = new CharacterAssembly(
+                character, base, characterNode, parts, requestId);
+        if (!isSuperseded(requestId)) { // poll() checks again
+            completed.set(assembly);
+        }
+    }
+
+    /**
+     * Disable culling for the specified subtree and configure it to cast
+     * shadows, but not receive them.
+     *
+     * @param subtree the subtree to configure (not null)
+     */
+    private static void configureHints(Spatial subtree) {
+        List<Spatial> list
+                = MySpatial.listSpatials(subtree, Spatial.class, null);
+        for (Spatial spatial : list) {
+            spatial.setCullHint(Spatial.CullHint.Never);
+            spatial.setShadowMode(RenderQueue.ShadowMode.Cast);
+        }
+    }
+
+    /**
+     * Instantiate the character node (including a SkeletonControl and an
+     * AnimControl but no geometries) for the specified character, loading its
+     * template if necessary.
+     *
+     * @param character the character body (not null, unaffected)
+     * @return a new Node
+     */
+    private Node instantiate(Character character) {
+        String assetName = character.animationAssetName();
+        CharacterTemplate template;
+        synchronized (templates) {
+            template = templates.get(assetName);
+        }
+        if (template == null) {
+            ModelKey assetKey = character.makeAnimationAssetKey();
+            Node loaded = (Node) assetManager.loadAsset(assetKey);
+            // The template replaces the cached original.
+            assetManager.deleteFromCache(assetKey);
+            template = new CharacterTemplate(loaded);
+            synchronized (templates) {
+                templates.put(assetName, template);
+            }
+        }
+        Node result = template.instantiate();
+
+        return result;
+    }
+
+    /**
+     * Test whether the identified request has been superseded.
+     *
+     * @param requestId the ID of the request
+     * @return true if superseded, otherwise false
+     */
+    private boolean isSuperseded(int requestId) {
+        boolean result = (requestId != numRequests.get());
+        return result;
+    }
+
+    /**
+     * Load the geometries of the specified body part for the specified
+     * character, resolving the alternate for the "ge" skeletal group.
+     *
+     * @param character the character body (not null, unaffected)
+     * @param part the body part to load (not null)
+     * @return a new Spatial, or null if the part isn't included
+     */
+    private Spatial loadPart(Character character, BodyPart part) {
+        if (!character.includes(part)) {
+            return null;
+        }
+
+        ModelKey assetKey = character.makeGeometryAssetKey(part);
+        Spatial result = assetManager.loadAsset(assetKey);
+        String groupName = character.groupName();
+        if (groupName.equals("ge")) {
+            result = result.getUserData("ryzom_alternate");
+        }
+
+        return result;
+    }
+}
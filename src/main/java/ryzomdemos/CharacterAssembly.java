@@ -0,0 +1,151 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import java.util.logging.Logger;
+
+/**
+ * The product of assembling a character off the render thread: either a
+ * complete character node with all its body parts, or just the body parts
+ * that differ from a character that's already in the scene.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class CharacterAssembly {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(CharacterAssembly.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * character body that was assembled (not null)
+     */
+    final private Character character;
+    /**
+     * character body that the parts replace, or null for a complete node
+     */
+    final private Character base;
+    /**
+     * complete character node, or null if only parts were assembled
+     */
+    final private Node characterNode;
+    /**
+     * assembled body parts, indexed by body-part ordinal (elements may be
+     * null)
+     */
+    final private Spatial[] parts;
+    /**
+     * ID of the request that was assembled
+     */
+    final private int requestId;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an assembly.
+     *
+     * @param character the character body that was assembled (not null,
+     * alias created)
+     * @param base the character body the parts replace, or null if the node
+     * is complete (alias created)
+     * @param characterNode the complete node, or null if only parts were
+     * assembled (alias created)
+     * @param parts the assembled body parts, indexed by body-part ordinal
+     * (not null, alias created)
+     * @param requestId the ID of the request that was assembled
+     */
+    CharacterAssembly(Character character, Character base,
+            Node characterNode, Spatial[] parts, int requestId) {
+        assert character != null;
+        assert (base == null) == (characterNode != null);
+        assert parts.length == BodyPart.values().length;
+
+        this.character = character;
+        this.base = base;
+        this.characterNode = characterNode;
+        this.parts = parts;
+        this.requestId = requestId;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Access the character body that the parts replace.
+     *
+     * @return the pre-existing instance, or null if the node is complete
+     */
+    Character base() {
+        return base;
+    }
+
+    /**
+     * Access the character body that was assembled.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    Character character() {
+        return character;
+    }
+
+    /**
+     * Access the complete character node.
+     *
+     * @return the pre-existing Node (not attached), or null if only parts
+     * were assembled
+     */
+    Node characterNode() {
+        return characterNode;
+    }
+
+    /**
+     * Access the assembled geometries of the specified body part.
+     *
+     * @param part (not null)
+     * @return the pre-existing Spatial, or null if none was assembled
+     */
+    Spatial part(BodyPart part) {
+        Spatial result = parts[part.ordinal()];
+        return result;
+    }
+
+    /**
+     * Return the ID of the request that was assembled.
+     *
+     * @return the ID
+     */
+    int requestId() {
+        return requestId;
+    }
+}
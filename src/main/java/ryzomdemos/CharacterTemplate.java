@@ -0,0 +1,169 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.animation.AnimControl;
+import com.jme3.animation.Animation;
+import com.jme3.animation.ClonableTrack;
+import com.jme3.animation.Skeleton;
+import com.jme3.animation.SkeletonControl;
+import com.jme3.animation.Track;
+import com.jme3.scene.Node;
+import com.jme3.scene.control.Control;
+import java.util.logging.Logger;
+
+/**
+ * A loaded character node (including a SkeletonControl and an AnimControl but
+ * no geometries) from which lightweight instances are created for each
+ * rebuild of the character.
+ * <p>
+ * Cloning the node the way the AssetManager does would duplicate every one of
+ * the hundreds of animations in its AnimControl. Instead, each instance gets
+ * its own Skeleton (since bone poses are per-instance state) and new controls,
+ * but shares the template's Animation objects, whose bone tracks are
+ * immutable. Templates containing anything else (children, other controls,
+ * or tracks that must be cloned) are simply cloned.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class CharacterTemplate {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(CharacterTemplate.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * true if instances can share the animations, false if they must be
+     * cloned in full
+     */
+    final private boolean isShareable;
+    /**
+     * loaded node, never attached to a scene graph
+     */
+    final private Node template;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a template for the specified node.
+     *
+     * @param template the loaded character node (not null, not attached,
+     * alias created)
+     */
+    CharacterTemplate(Node template) {
+        assert template.getParent() == null;
+
+        this.template = template;
+        this.isShareable = isShareable(template);
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Create an instance of the character node that can be posed and animated
+     * independently of the template and any other instance.
+     *
+     * @return a new Node
+     */
+    Node instantiate() {
+        if (!isShareable) {
+            Node result = (Node) template.clone();
+            return result;
+        }
+
+        SkeletonControl skeletonControl
+                = template.getControl(SkeletonControl.class);
+        Skeleton skeleton = new Skeleton(skeletonControl.getSkeleton());
+
+        Node result = new Node(template.getName());
+        result.setLocalTransform(template.getLocalTransform());
+        for (String key : template.getUserDataKeys()) {
+            Object value = template.getUserData(key);
+            result.setUserData(key, value);
+        }
+
+        // Add controls in the same order as the template.
+        int numControls = template.getNumControls();
+        for (int index = 0; index < numControls; ++index) {
+            Control control = template.getControl(index);
+            if (control instanceof SkeletonControl) {
+                result.addControl(new SkeletonControl(skeleton));
+
+            } else {
+                AnimControl animControl = (AnimControl) control;
+                AnimControl newControl = new AnimControl(skeleton);
+                for (String name : animControl.getAnimationNames()) {
+                    Animation animation = animControl.getAnim(name);
+                    newControl.addAnim(animation);
+                }
+                result.addControl(newControl);
+            }
+        }
+
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Test whether instances of the specified node can share its animations.
+     *
+     * @param node the node to test (not null, unaffected)
+     * @return true if it consists of a childless node with one SkeletonControl
+     * and one AnimControl (sharing a Skeleton) whose animations contain no
+     * tracks that must be cloned, otherwise false
+     */
+    private static boolean isShareable(Node node) {
+        if (node.getQuantity() > 0 || node.getNumControls() != 2) {
+            return false;
+        }
+        AnimControl animControl = node.getControl(AnimControl.class);
+        SkeletonControl skeletonControl
+                = node.getControl(SkeletonControl.class);
+        if (animControl == null || skeletonControl == null
+                || animControl.getSkeleton() != skeletonControl.getSkeleton()) {
+            return false;
+        }
+
+        for (String name : animControl.getAnimationNames()) {
+            Animation animation = animControl.getAnim(name);
+            for (Track track : animation.getTracks()) {
+                if (track instanceof ClonableTrack) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
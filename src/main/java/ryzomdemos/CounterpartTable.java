@@ -0,0 +1,228 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Bidirectional table that pairs each female geometry asset for a body part
+ * with its male counterpart (if any) and vice versa. Assets are identified by
+ * their ranks in the corresponding sorted dictionaries. Immutable.
+ * <p>
+ * Encoded layout (all integers big-endian): int number of female assets, int
+ * number of male assets, then the rank of each female asset's male
+ * counterpart, then the rank of each male asset's female counterpart (-1 for
+ * none).
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class CounterpartTable {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * table with no assets
+     */
+    final static CounterpartTable empty
+            = new CounterpartTable(new int[0], new int[0]);
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(CounterpartTable.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * rank of the male counterpart of each female asset, or -1 for none
+     */
+    final private int[] femaleToMale;
+    /**
+     * rank of the female counterpart of each male asset, or -1 for none
+     */
+    final private int[] maleToFemale;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a table from its mappings.
+     *
+     * @param femaleToMale the male counterparts (not null, alias created)
+     * @param maleToFemale the female counterparts (not null, alias created)
+     */
+    private CounterpartTable(int[] femaleToMale, int[] maleToFemale) {
+        this.femaleToMale = femaleToMale;
+        this.maleToFemale = maleToFemale;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Build a table by adjusting the name of each asset for the opposite
+     * gender and looking up the result.
+     *
+     * @param female the female assets (not null)
+     * @param male the male assets (not null)
+     * @return a new table
+     */
+    static CounterpartTable build(
+            FrontCodedDictionary female, FrontCodedDictionary male) {
+        int[] femaleToMale = map(female, male, "m");
+        int[] maleToFemale = map(male, female, "f");
+        CounterpartTable result
+                = new CounterpartTable(femaleToMale, maleToFemale);
+
+        return result;
+    }
+
+    /**
+     * Find the counterpart of the specified asset.
+     *
+     * @param toGender the gender of the counterpart: "f" for female or "m"
+     * for male
+     * @param rank the rank of the asset in the dictionary for the opposite
+     * gender (&ge;0)
+     * @return the rank of the counterpart (&ge;0) or -1 if none
+     */
+    int counterpart(String toGender, int rank) {
+        int[] mapping = toGender.equals("m") ? femaleToMale : maleToFemale;
+        int result = (rank < mapping.length) ? mapping[rank] : -1;
+
+        return result;
+    }
+
+    /**
+     * Determine the size of this table's encoding.
+     *
+     * @return the number of bytes (&ge;8)
+     */
+    int encodedBytes() {
+        int result = 4 * (2 + femaleToMale.length + maleToFemale.length);
+        return result;
+    }
+
+    /**
+     * Decode a table from the specified buffer, starting at its current
+     * position. The position is advanced past the encoding.
+     *
+     * @param buffer the buffer to read (not null)
+     * @return a new table
+     * @throws IOException if the encoding is invalid
+     */
+    static CounterpartTable read(ByteBuffer buffer) throws IOException {
+        try {
+            int numFemale = buffer.getInt();
+            int numMale = buffer.getInt();
+            if (numFemale < 0 || numMale < 0
+                    || 4L * (numFemale + numMale) > buffer.remaining()) {
+                throw new IOException("invalid counterpart table");
+            }
+            int[] femaleToMale = readMapping(buffer, numFemale, numMale);
+            int[] maleToFemale = readMapping(buffer, numMale, numFemale);
+            CounterpartTable result
+                    = new CounterpartTable(femaleToMale, maleToFemale);
+
+            return result;
+
+        } catch (BufferUnderflowException exception) {
+            throw new IOException("truncated counterpart table", exception);
+        }
+    }
+
+    /**
+     * Encode this table into the specified buffer, starting at its current
+     * position.
+     *
+     * @param buffer the buffer to write (not null, with at least
+     * {@link #encodedBytes()} remaining)
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(femaleToMale.length);
+        buffer.putInt(maleToFemale.length);
+        for (int rank : femaleToMale) {
+            buffer.putInt(rank);
+        }
+        for (int rank : maleToFemale) {
+            buffer.putInt(rank);
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Map each asset in one dictionary to its counterpart in the other.
+     *
+     * @param from the assets to map (not null)
+     * @param to the candidate counterparts (not null)
+     * @param toGender the gender of the counterparts: "f" or "m"
+     * @return a new array of ranks in the "to" dictionary (-1 for none)
+     */
+    private static int[] map(FrontCodedDictionary from,
+            FrontCodedDictionary to, String toGender) {
+        String[] names = from.toArray();
+        int numNames = names.length;
+        int[] result = new int[numNames];
+        Arrays.fill(result, -1);
+        for (int rank = 0; rank < numNames; ++rank) {
+            AssetName parsed = RyzomUtil.parseAssetName(names[rank]);
+            String counterpart = parsed.forGender(toGender);
+            int index = to.indexOf(counterpart);
+            if (index >= 0) {
+                result[rank] = index;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Read and validate one direction of a table.
+     *
+     * @param buffer the buffer to read (not null)
+     * @param count the number of ranks to read (&ge;0)
+     * @param limit the number of assets in the opposite dictionary (&ge;0)
+     * @return a new array of ranks
+     * @throws IOException if a rank is out of range
+     */
+    private static int[] readMapping(ByteBuffer buffer, int count, int limit)
+            throws IOException {
+        int[] result = new int[count];
+        for (int i = 0; i < count; ++i) {
+            int rank = buffer.getInt();
+            if (rank < -1 || rank >= limit) {
+                throw new IOException("invalid counterpart rank " + rank);
+            }
+            result[i] = rank;
+        }
+
+        return result;
+    }
+}
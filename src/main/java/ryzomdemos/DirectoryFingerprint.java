@@ -0,0 +1,212 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Summarize the state of a directory: the number of files plus a rolling hash
+ * of their names, sizes, and modification times. Cheap to compute, since file
+ * contents aren't read. Immutable.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class DirectoryFingerprint {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * FNV-1a offset basis for 64-bit hashes
+     */
+    final private static long offsetBasis = 0xcbf29ce484222325L;
+    /**
+     * FNV-1a prime for 64-bit hashes
+     */
+    final private static long prime = 0x100000001b3L;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(DirectoryFingerprint.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of files in the directory
+     */
+    final private int numFiles;
+    /**
+     * rolling hash of file names, sizes, and modification times
+     */
+    final private long hash;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a fingerprint with the specified properties.
+     *
+     * @param numFiles the number of files (&ge;0)
+     * @param hash the rolling hash
+     */
+    DirectoryFingerprint(int numFiles, long hash) {
+        assert numFiles >= 0 : numFiles;
+
+        this.numFiles = numFiles;
+        this.hash = hash;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Fingerprint the specified directory in its current state. The size and
+     * modification time of each file are read with a single attribute query.
+     *
+     * @param directoryPath the filesystem path to the directory (not null)
+     * @return a new instance
+     */
+    static DirectoryFingerprint of(String directoryPath) {
+        // Hash in order of filename, so the result doesn't depend on the OS.
+        Map<String, BasicFileAttributes> attributes = new TreeMap<>();
+        Path directory = Paths.get(directoryPath);
+        try (DirectoryStream<Path> stream
+                = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String fileName = path.getFileName().toString();
+                BasicFileAttributes fileAttributes;
+                try {
+                    fileAttributes = Files.readAttributes(
+                            path, BasicFileAttributes.class);
+                } catch (IOException exception) {
+                    fileAttributes = null; // deleted since it was listed
+                }
+                attributes.put(fileName, fileAttributes);
+            }
+        } catch (IOException exception) {
+            attributes.clear(); // treat a missing directory as empty
+        }
+
+        long hash = offsetBasis;
+        for (String fileName : attributes.keySet()) {
+            byte[] nameBytes = fileName.getBytes(StandardCharsets.UTF_8);
+            for (byte b : nameBytes) {
+                hash = (hash ^ (b & 0xff)) * prime;
+            }
+            BasicFileAttributes fileAttributes = attributes.get(fileName);
+            if (fileAttributes == null) {
+                hash = mix(hash, 0L);
+                hash = mix(hash, 0L);
+            } else {
+                hash = mix(hash, fileAttributes.size());
+                hash = mix(hash,
+                        fileAttributes.lastModifiedTime().toMillis());
+            }
+        }
+        int numFiles = attributes.size();
+        DirectoryFingerprint result = new DirectoryFingerprint(numFiles, hash);
+
+        return result;
+    }
+
+    /**
+     * Read the rolling hash.
+     *
+     * @return the hash value
+     */
+    long hash() {
+        return hash;
+    }
+
+    /**
+     * Read the number of files.
+     *
+     * @return the count (&ge;0)
+     */
+    int numFiles() {
+        return numFiles;
+    }
+    // *************************************************************************
+    // Object methods
+
+    /**
+     * Test for equivalency with another Object.
+     *
+     * @param otherObject the object to compare (may be null, unaffected)
+     * @return true if the objects are equivalent, otherwise false
+     */
+    @Override
+    public boolean equals(Object otherObject) {
+        boolean result;
+        if (otherObject == this) {
+            result = true;
+        } else if (otherObject instanceof DirectoryFingerprint) {
+            DirectoryFingerprint other = (DirectoryFingerprint) otherObject;
+            result = other.numFiles == numFiles && other.hash == hash;
+        } else {
+            result = false;
+        }
+
+        return result;
+    }
+
+    /**
+     * Generate the hash code for this instance.
+     *
+     * @return a 32-bit value for use in hashing
+     */
+    @Override
+    public int hashCode() {
+        int result = 31 * numFiles + Long.hashCode(hash);
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Mix the 8 bytes of a long value into the specified FNV-1a hash.
+     *
+     * @param hash the hash so far
+     * @param value the value to mix in
+     * @return the updated hash
+     */
+    private static long mix(long hash, long value) {
+        long result = hash;
+        for (int shift = 0; shift < 64; shift += 8) {
+            result = (result ^ ((value >>> shift) & 0xffL)) * prime;
+        }
+
+        return result;
+    }
+}
@@ -198,7 +198,9 @@ public class DodgerGame extends AcorusDemo implements AnimEventListener {
 
         addBox();
 
-        Locators.registerFilesystem(RyzomUtil.assetRoot);
+        for (String assetRoot : RyzomUtil.assetRoots) {
+            Locators.registerFilesystem(assetRoot);
+        }
         attachCharacter();
 
         configureCamera();
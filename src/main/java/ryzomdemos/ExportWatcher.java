@@ -0,0 +1,262 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watch the export directory of each asset root and reload the files that
+ * change, so assets re-exported by RyzomConverter appear without restarting
+ * the application.
+ * <p>
+ * Events are debounced: after the first event, the watcher waits until the
+ * directories have been quiet for a short interval (or a maximum delay has
+ * elapsed) and then reloads every affected file at once. Only those files
+ * are reclassified, after which a new catalog snapshot is published and the
+ * listener is notified.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class ExportWatcher {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * maximum time to wait for a burst of events to end (in milliseconds)
+     */
+    final private static long maxDelayMillis = 5_000L;
+    /**
+     * quiet interval that ends a burst of events (in milliseconds)
+     */
+    final private static long quietMillis = 500L;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ExportWatcher.class.getName());
+    /**
+     * listener that ignores the progress of reloads
+     */
+    final private static ScanListener ignoreProgress = new ScanListener() {
+        @Override
+        public void onProgress(int numAnalyzed, int numFiles) {
+            // do nothing
+        }
+    };
+    // *************************************************************************
+    // fields
+
+    /**
+     * shard of each registered export directory
+     */
+    final private Map<WatchKey, CatalogShard> shardOfKey = new HashMap<>();
+    /**
+     * listener to notify after each reload
+     */
+    final private ReloadListener listener;
+    /**
+     * service that reports changes, or null if not started
+     */
+    private WatchService watchService = null;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a watcher that hasn't been started.
+     *
+     * @param listener the listener to notify after each reload (not null,
+     * alias created)
+     */
+    ExportWatcher(ReloadListener listener) {
+        assert listener != null;
+        this.listener = listener;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Register the export directory of each asset root and start watching
+     * them on a daemon thread. Roots that can't be watched are logged and
+     * skipped.
+     */
+    synchronized void start() {
+        assert watchService == null;
+
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "can''t watch exports: {0}", exception);
+            return;
+        }
+
+        for (CatalogShard shard : RyzomUtil.shards()) {
+            String directoryPath
+                    = shard.assetRoot() + RyzomUtil.assetPathPrefix;
+            Path directory = Paths.get(directoryPath);
+            try {
+                WatchKey key = directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                shardOfKey.put(key, shard);
+            } catch (IOException exception) {
+                logger.log(Level.WARNING, "can''t watch {0}: {1}",
+                        new Object[]{directoryPath, exception});
+            }
+        }
+
+        Runnable watcher = new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        };
+        Thread thread = new Thread(watcher, "export watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching. Any reload in progress runs to completion.
+     */
+    synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException exception) {
+                // the watcher thread will exit anyway
+            }
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Add the filenames reported by the specified key to the pending changes
+     * of its shard, then reset the key.
+     *
+     * @param key the signaled key (not null)
+     * @param pending the filenames to reload for each shard, or null to
+     * reload every file (not null, modified)
+     */
+    private void collect(WatchKey key, Map<CatalogShard, Set<String>> pending) {
+        CatalogShard shard = shardOfKey.get(key);
+        Set<String> fileNames;
+        if (pending.containsKey(shard)) {
+            fileNames = pending.get(shard);
+        } else {
+            fileNames = new TreeSet<>();
+            pending.put(shard, fileNames);
+        }
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Some events were lost, so compare every file.
+                fileNames = null;
+                pending.put(shard, null);
+            } else if (fileNames != null) {
+                Path context = (Path) event.context();
+                fileNames.add(context.toString());
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Reload the pending changes of each shard and notify the listener of
+     * each shard that changed.
+     *
+     * @param pending the filenames to reload for each shard, or null to
+     * reload every file (not null, unaffected)
+     */
+    private void reload(Map<CatalogShard, Set<String>> pending) {
+        for (Map.Entry<CatalogShard, Set<String>> entry : pending.entrySet()) {
+            CatalogShard shard = entry.getKey();
+            Set<String> changedFiles;
+            try {
+                changedFiles
+                        = shard.reloadFiles(entry.getValue(), ignoreProgress);
+            } catch (RuntimeException exception) {
+                // perhaps a file that's still being written
+                logger.log(Level.WARNING, "failed to reload {0}: {1}",
+                        new Object[]{shard, exception});
+                continue;
+            }
+
+            if (!changedFiles.isEmpty()) {
+                logger.log(Level.INFO, "reloaded {0} file(s) from {1}",
+                        new Object[]{changedFiles.size(), shard.assetRoot()});
+                listener.onReload(changedFiles);
+            }
+        }
+    }
+
+    /**
+     * Wait for events, debounce them, and reload the affected files, until
+     * the service is closed. Invoked only on the watcher thread.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Map<CatalogShard, Set<String>> pending = new LinkedHashMap<>();
+                long deadline = System.currentTimeMillis() + maxDelayMillis;
+                while (key != null) {
+                    collect(key, pending);
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0L) {
+                        break;
+                    }
+                    long timeout = Math.min(quietMillis, remaining);
+                    key = watchService.poll(timeout, TimeUnit.MILLISECONDS);
+                }
+                reload(pending);
+            }
+
+        } catch (ClosedWatchServiceException exception) {
+            // stopped
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
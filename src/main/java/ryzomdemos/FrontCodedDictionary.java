@@ -0,0 +1,657 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Sorted dictionary of names, stored as front-coded (prefix-compressed) UTF-8
+ * in blocks of 16 entries. The first entry in each block is stored in full.
+ * Each other entry is stored as the length of the prefix it shares with its
+ * predecessor plus the remaining suffix. Immutable.
+ * <p>
+ * Rank (name to index) uses binary search over the block heads followed by a
+ * scan within one block. Select (index to name) decodes at most one block.
+ * Since the names are sorted, those that begin with any given prefix form a
+ * contiguous range, which is located the same way, without decoding any
+ * names.
+ * The names must sort identically as Strings and as unsigned UTF-8 bytes,
+ * which holds for ASCII names.
+ * <p>
+ * Encoded layout (all integers big-endian): int number of names, an int
+ * offset for each block (relative to the start of the data), int data length,
+ * then the data. In the data, lengths are unsigned varints.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class FrontCodedDictionary {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * number of names in each block (except possibly the last)
+     */
+    final private static int blockSize = 16;
+    /**
+     * dictionary containing no names
+     */
+    final static FrontCodedDictionary empty
+            = new FrontCodedDictionary(0, new int[0], new byte[0]);
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(FrontCodedDictionary.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * encoded names
+     */
+    final private byte[] data;
+    /**
+     * number of names
+     */
+    final private int size;
+    /**
+     * offset of each block in the data
+     */
+    final private int[] blockOffsets;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a dictionary from its encoded components.
+     *
+     * @param size the number of names (&ge;0)
+     * @param blockOffsets the offset of each block (not null, alias created)
+     * @param data the encoded names (not null, alias created)
+     */
+    private FrontCodedDictionary(int size, int[] blockOffsets, byte[] data) {
+        this.size = size;
+        this.blockOffsets = blockOffsets;
+        this.data = data;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Determine the size of this dictionary's encoding.
+     *
+     * @return the number of bytes (&ge;8)
+     */
+    int encodedBytes() {
+        int result = 4 * (blockOffsets.length + 2) + data.length;
+        return result;
+    }
+
+    /**
+     * Select the indexed name.
+     *
+     * @param index the index of the name (&ge;0, &lt;size)
+     * @return a new String
+     */
+    String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index);
+        }
+
+        byte[] buffer = new byte[maxLength(index / blockSize)];
+        int length = decodeUpTo(index, buffer);
+        String result = new String(buffer, 0, length, StandardCharsets.UTF_8);
+
+        return result;
+    }
+
+    /**
+     * Rank the specified name.
+     *
+     * @param name the name to find (not null)
+     * @return the index of the name if found, otherwise (-insertionPoint - 1),
+     * as in {@link java.util.Arrays#binarySearch(java.lang.Object[],
+     * java.lang.Object)}
+     */
+    int indexOf(String name) {
+        if (size == 0) {
+            return -1;
+        }
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+
+        // Find the last block whose head is <= the key.
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        int block = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareHead(mid, key);
+            if (cmp == 0) {
+                return mid * blockSize;
+            } else if (cmp < 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return -1; // before the first name
+        }
+
+        // Scan the block.
+        int firstIndex = block * blockSize;
+        int endIndex = Math.min(firstIndex + blockSize, size);
+        byte[] buffer = new byte[maxLength(block)];
+        int position = blockOffsets[block];
+        int length = 0;
+        for (int index = firstIndex; index < endIndex; ++index) {
+            int prefixLength = 0;
+            if (index > firstIndex) {
+                prefixLength = readVarint(position);
+                position += varintBytes(prefixLength);
+            }
+            int suffixLength = readVarint(position);
+            position += varintBytes(suffixLength);
+            System.arraycopy(
+                    data, position, buffer, prefixLength, suffixLength);
+            position += suffixLength;
+            length = prefixLength + suffixLength;
+
+            int cmp = compare(buffer, length, key);
+            if (cmp == 0) {
+                return index;
+            } else if (cmp > 0) {
+                return -index - 1;
+            }
+        }
+
+        return -endIndex - 1;
+    }
+
+    /**
+     * Create a dictionary containing the specified names.
+     *
+     * @param sortedNames the names (not null, in lexicographic order, no
+     * duplicates, unaffected)
+     * @return a new dictionary, or {@link #empty} if there are no names
+     */
+    static FrontCodedDictionary of(String... sortedNames) {
+        int numNames = sortedNames.length;
+        if (numNames == 0) {
+            return empty;
+        }
+
+        int numBlocks = (numNames + blockSize - 1) / blockSize;
+        int[] blockOffsets = new int[numBlocks];
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        byte[] previous = null;
+        for (int index = 0; index < numNames; ++index) {
+            byte[] bytes = sortedNames[index].getBytes(StandardCharsets.UTF_8);
+            int prefixLength = 0;
+            if (index % blockSize == 0) {
+                blockOffsets[index / blockSize] = buffer.position();
+            } else {
+                assert compare(previous, previous.length, bytes) < 0 :
+                        sortedNames[index];
+                int maxPrefix = Math.min(previous.length, bytes.length);
+                while (prefixLength < maxPrefix
+                        && previous[prefixLength] == bytes[prefixLength]) {
+                    ++prefixLength;
+                }
+            }
+
+            int suffixLength = bytes.length - prefixLength;
+            int needed = 10 + suffixLength;
+            if (buffer.remaining() < needed) {
+                int capacity = Math.max(2 * buffer.capacity(),
+                        buffer.position() + needed);
+                ByteBuffer grown = ByteBuffer.allocate(capacity);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            if (index % blockSize != 0) {
+                putVarint(buffer, prefixLength);
+            }
+            putVarint(buffer, suffixLength);
+            buffer.put(bytes, prefixLength, suffixLength);
+            previous = bytes;
+        }
+
+        byte[] data = Arrays.copyOf(buffer.array(), buffer.position());
+        FrontCodedDictionary result
+                = new FrontCodedDictionary(numNames, blockOffsets, data);
+
+        return result;
+    }
+
+    /**
+     * Find the range of names that begin with the specified prefix, in
+     * O(log n) time and without allocating (unless storeResult is null).
+     *
+     * @param prefix the prefix to match (not null, may be empty)
+     * @param storeResult storage for the result (modified if not null)
+     * @return the index of the first matching name followed by the index
+     * after the last one, equal if there are no matches (either storeResult
+     * or a new array of length 2)
+     */
+    int[] prefixRange(String prefix, int[] storeResult) {
+        int[] result = (storeResult == null) ? new int[2] : storeResult;
+        result[0] = boundary(prefix, 0);
+        result[1] = boundary(prefix, 1);
+
+        return result;
+    }
+
+    /**
+     * Decode a dictionary from the specified buffer, starting at its current
+     * position. The position is advanced past the encoding.
+     *
+     * @param buffer the buffer to read (not null)
+     * @return a new dictionary, or {@link #empty} if it has no names
+     * @throws IOException if the encoding is invalid
+     */
+    static FrontCodedDictionary read(ByteBuffer buffer) throws IOException {
+        int numNames = buffer.getInt();
+        if (numNames < 0) {
+            throw new IOException("invalid dictionary size " + numNames);
+        }
+        int numBlocks = (numNames + blockSize - 1) / blockSize;
+        if (buffer.remaining() < 4L * (numBlocks + 1)) {
+            throw new IOException("truncated dictionary");
+        }
+        int[] blockOffsets = new int[numBlocks];
+        for (int block = 0; block < numBlocks; ++block) {
+            blockOffsets[block] = buffer.getInt();
+        }
+        int dataLength = buffer.getInt();
+        if (dataLength < 0 || dataLength > buffer.remaining()) {
+            throw new IOException("truncated dictionary");
+        }
+        for (int block = 0; block < numBlocks; ++block) {
+            int offset = blockOffsets[block];
+            if (offset < 0 || offset >= dataLength
+                    || (block > 0 && offset <= blockOffsets[block - 1])) {
+                throw new IOException("invalid block offset " + offset);
+            }
+        }
+        byte[] data = new byte[dataLength];
+        buffer.get(data);
+
+        if (numNames == 0) {
+            return empty;
+        }
+        FrontCodedDictionary result
+                = new FrontCodedDictionary(numNames, blockOffsets, data);
+
+        return result;
+    }
+
+    /**
+     * Count the names in this dictionary.
+     *
+     * @return the count (&ge;0)
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Decode all names into an array.
+     *
+     * @return a new array of names (not null, in lexicographic order)
+     */
+    String[] toArray() {
+        String[] result = new String[size];
+        int numBlocks = blockOffsets.length;
+        for (int block = 0; block < numBlocks; ++block) {
+            byte[] buffer = new byte[maxLength(block)];
+            int firstIndex = block * blockSize;
+            int endIndex = Math.min(firstIndex + blockSize, size);
+            int position = blockOffsets[block];
+            for (int index = firstIndex; index < endIndex; ++index) {
+                int prefixLength = 0;
+                if (index > firstIndex) {
+                    prefixLength = readVarint(position);
+                    position += varintBytes(prefixLength);
+                }
+                int suffixLength = readVarint(position);
+                position += varintBytes(suffixLength);
+                System.arraycopy(
+                        data, position, buffer, prefixLength, suffixLength);
+                position += suffixLength;
+                result[index] = new String(buffer, 0,
+                        prefixLength + suffixLength, StandardCharsets.UTF_8);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Create a dictionary that contains the names in this one plus the
+     * specified name.
+     *
+     * @param name the name to add (not null)
+     * @return a dictionary (possibly this one, if the name is already present)
+     */
+    FrontCodedDictionary with(String name) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            return this;
+        }
+
+        int insertionPoint = -index - 1;
+        String[] oldNames = toArray();
+        String[] newNames = new String[size + 1];
+        System.arraycopy(oldNames, 0, newNames, 0, insertionPoint);
+        newNames[insertionPoint] = name;
+        System.arraycopy(oldNames, insertionPoint, newNames,
+                insertionPoint + 1, size - insertionPoint);
+        FrontCodedDictionary result = of(newNames);
+
+        return result;
+    }
+
+    /**
+     * Encode this dictionary into the specified buffer, starting at its
+     * current position.
+     *
+     * @param buffer the buffer to write (not null, with at least
+     * {@link #encodedBytes()} remaining)
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for (int offset : blockOffsets) {
+            buffer.putInt(offset);
+        }
+        buffer.putInt(data.length);
+        buffer.put(data);
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Find the first name that doesn't sort before the specified prefix (or,
+     * if {@code after} is 1, the first name that sorts after every name that
+     * begins with the prefix). Each name is compared with the prefix after
+     * truncating the name to the length of the prefix.
+     * <p>
+     * The scan within a block tracks how many leading bytes of the current
+     * name match the prefix, so no name is decoded.
+     *
+     * @param prefix the prefix (not null)
+     * @param after 0 to find the start of the prefix's range, 1 to find its
+     * end
+     * @return the index of the name, or the size if there is none
+     */
+    private int boundary(String prefix, int after) {
+        // Find the last block whose head sorts before the boundary.
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        int block = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefixAtHead(mid, prefix) < after) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return 0;
+        }
+
+        // Scan the block.
+        int prefixLength = prefix.length();
+        int firstIndex = block * blockSize;
+        int endIndex = Math.min(firstIndex + blockSize, size);
+        int position = blockOffsets[block];
+        int matched = 0; // leading bytes of the current name that match
+        int sign = 0; // sign of the comparison with the prefix
+        for (int index = firstIndex; index < endIndex; ++index) {
+            int sharedLength = 0;
+            if (index > firstIndex) {
+                sharedLength = readVarint(position);
+                position += varintBytes(sharedLength);
+            }
+            int suffixLength = readVarint(position);
+            position += varintBytes(suffixLength);
+
+            if (sharedLength < matched) {
+                /*
+                 * The name diverges from its predecessor (and thus from the
+                 * prefix) within the matched bytes, and it sorts later.
+                 */
+                matched = sharedLength;
+                sign = 1;
+
+            } else if (sharedLength == matched) {
+                sign = 0;
+                int j = 0;
+                while (matched < prefixLength) {
+                    if (j == suffixLength) {
+                        sign = -1; // the name is a proper prefix of the prefix
+                        break;
+                    }
+                    int cmp = (data[position + j] & 0xff)
+                            - prefix.charAt(matched);
+                    if (cmp != 0) {
+                        sign = (cmp < 0) ? -1 : 1;
+                        break;
+                    }
+                    ++j;
+                    ++matched;
+                }
+            } // else the comparison is the same as for the predecessor
+
+            if (sign >= after) {
+                return index;
+            }
+            position += suffixLength;
+        }
+
+        return endIndex;
+    }
+
+    /**
+     * Compare a decoded name with a key, as unsigned bytes.
+     *
+     * @param name the decoded name (not null, unaffected)
+     * @param length the length of the decoded name (in bytes)
+     * @param key the key (not null, unaffected)
+     * @return negative if the name sorts before the key, 0 if equal,
+     * positive if after
+     */
+    private static int compare(byte[] name, int length, byte[] key) {
+        int minLength = Math.min(length, key.length);
+        for (int i = 0; i < minLength; ++i) {
+            int cmp = (name[i] & 0xff) - (key[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        int result = length - key.length;
+        return result;
+    }
+
+    /**
+     * Compare the head of the indexed block with a key, as unsigned bytes,
+     * without decoding the head.
+     *
+     * @param block the index of the block (&ge;0)
+     * @param key the key (not null, unaffected)
+     * @return negative if the head sorts before the key, 0 if equal,
+     * positive if after
+     */
+    private int compareHead(int block, byte[] key) {
+        int position = blockOffsets[block];
+        int length = readVarint(position);
+        position += varintBytes(length);
+
+        int minLength = Math.min(length, key.length);
+        for (int i = 0; i < minLength; ++i) {
+            int cmp = (data[position + i] & 0xff) - (key[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        int result = length - key.length;
+        return result;
+    }
+
+    /**
+     * Compare the head of the indexed block with a prefix, after truncating
+     * the head to the length of the prefix, without decoding the head.
+     *
+     * @param block the index of the block (&ge;0)
+     * @param prefix the prefix (not null, unaffected)
+     * @return -1 if the head sorts before the prefix, 0 if it begins with the
+     * prefix, or +1 if it sorts after
+     */
+    private int comparePrefixAtHead(int block, String prefix) {
+        int position = blockOffsets[block];
+        int length = readVarint(position);
+        position += varintBytes(length);
+
+        int prefixLength = prefix.length();
+        int minLength = Math.min(length, prefixLength);
+        for (int i = 0; i < minLength; ++i) {
+            int cmp = (data[position + i] & 0xff) - prefix.charAt(i);
+            if (cmp != 0) {
+                return (cmp < 0) ? -1 : 1;
+            }
+        }
+
+        int result = (length < prefixLength) ? -1 : 0;
+        return result;
+    }
+
+    /**
+     * Decode the indexed name into the specified buffer.
+     *
+     * @param index the index of the name (&ge;0, &lt;size)
+     * @param storeResult storage for the name (not null, modified)
+     * @return the length of the name (in bytes)
+     */
+    private int decodeUpTo(int index, byte[] storeResult) {
+        int block = index / blockSize;
+        int firstIndex = block * blockSize;
+        int position = blockOffsets[block];
+        int length = 0;
+        for (int i = firstIndex; i <= index; ++i) {
+            int prefixLength = 0;
+            if (i > firstIndex) {
+                prefixLength = readVarint(position);
+                position += varintBytes(prefixLength);
+            }
+            int suffixLength = readVarint(position);
+            position += varintBytes(suffixLength);
+            System.arraycopy(
+                    data, position, storeResult, prefixLength, suffixLength);
+            position += suffixLength;
+            length = prefixLength + suffixLength;
+        }
+
+        return length;
+    }
+
+    /**
+     * Determine an upper bound on the length of any name in the indexed
+     * block.
+     *
+     * @param block the index of the block (&ge;0)
+     * @return the bound (in bytes)
+     */
+    private int maxLength(int block) {
+        int start = blockOffsets[block];
+        int end = (block + 1 < blockOffsets.length)
+                ? blockOffsets[block + 1] : data.length;
+        int result = end - start;
+
+        return result;
+    }
+
+    /**
+     * Append an unsigned varint to the specified buffer.
+     *
+     * @param buffer the buffer to write (not null)
+     * @param value the value to encode (&ge;0)
+     */
+    private static void putVarint(ByteBuffer buffer, int value) {
+        int remaining = value;
+        while (remaining >= 0x80) {
+            buffer.put((byte) (remaining | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Read an unsigned varint from the data.
+     *
+     * @param position the offset of the varint in the data
+     * @return the decoded value (&ge;0)
+     */
+    private int readVarint(int position) {
+        int result = 0;
+        int shift = 0;
+        int offset = position;
+        int b;
+        do {
+            b = data[offset] & 0xff;
+            ++offset;
+            result |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b >= 0x80);
+
+        return result;
+    }
+
+    /**
+     * Determine how many bytes encode the specified value as a varint.
+     *
+     * @param value the value (&ge;0)
+     * @return the number of bytes (&ge;1)
+     */
+    private static int varintBytes(int value) {
+        int result = 1;
+        int remaining = value;
+        while (remaining >= 0x80) {
+            ++result;
+            remaining >>>= 7;
+        }
+
+        return result;
+    }
+}
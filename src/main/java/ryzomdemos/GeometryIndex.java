@@ -0,0 +1,274 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Secondary indexes over a sorted list of geometry-asset names, keyed by the
+ * race, family, piece, and color parsed from each name. Each key maps to the
+ * indices of the matching names, in ascending order, so a lookup costs one
+ * hash probe and returns a pre-existing array. Immutable.
+ * <p>
+ * For example, in the list of male torso assets, family "armor01" selects
+ * every "fy_hom_armor01_gilet@01x_c1"-style asset, regardless of race or
+ * color.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class GeometryIndex {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * shared array for keys that match no names
+     */
+    final private static int[] noMatches = new int[0];
+    /**
+     * index of an empty list
+     */
+    final static GeometryIndex empty = build(FrontCodedDictionary.empty);
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(GeometryIndex.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * dictionary whose names were indexed
+     */
+    final private FrontCodedDictionary source;
+    /**
+     * indices of the names with each color: key = color code
+     */
+    final private Map<String, int[]> byColor;
+    /**
+     * indices of the names in each family: key = family
+     */
+    final private Map<String, int[]> byFamily;
+    /**
+     * indices of the names for each piece: key = piece
+     */
+    final private Map<String, int[]> byPiece;
+    /**
+     * indices of the names for each race: key = race code
+     */
+    final private Map<String, int[]> byRace;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an index from its maps.
+     *
+     * @param source the dictionary whose names were indexed (not null, alias
+     * created)
+     * @param byRace the map for races (not null, alias created)
+     * @param byFamily the map for families (not null, alias created)
+     * @param byPiece the map for pieces (not null, alias created)
+     * @param byColor the map for colors (not null, alias created)
+     */
+    private GeometryIndex(FrontCodedDictionary source,
+            Map<String, int[]> byRace, Map<String, int[]> byFamily,
+            Map<String, int[]> byPiece, Map<String, int[]> byColor) {
+        this.source = source;
+        this.byRace = byRace;
+        this.byFamily = byFamily;
+        this.byPiece = byPiece;
+        this.byColor = byColor;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Index the names in the specified dictionary.
+     *
+     * @param names the geometry-asset names to index (not null, alias
+     * created)
+     * @return a new index (not null)
+     */
+    static GeometryIndex build(FrontCodedDictionary names) {
+        Map<String, int[]> races = new HashMap<>();
+        Map<String, int[]> families = new HashMap<>();
+        Map<String, int[]> pieces = new HashMap<>();
+        Map<String, int[]> colors = new HashMap<>();
+
+        String[] array = names.toArray();
+        int numNames = array.length;
+        for (int index = 0; index < numNames; ++index) {
+            AssetName parsed = RyzomUtil.parseAssetName(array[index]);
+            addPosting(races, parsed.race(), index);
+            addPosting(families, parsed.family(), index);
+            addPosting(pieces, parsed.piece(), index);
+            addPosting(colors, parsed.color(), index);
+        }
+
+        GeometryIndex result = new GeometryIndex(names, freeze(races),
+                freeze(families), freeze(pieces), freeze(colors));
+
+        return result;
+    }
+
+    /**
+     * Enumerate the families of the indexed names.
+     *
+     * @return a new array of families, in lexicographic order (not null)
+     */
+    String[] families() {
+        String[] result = byFamily.keySet().toArray(new String[0]);
+        Arrays.sort(result);
+
+        return result;
+    }
+
+    /**
+     * Find the names for the specified piece.
+     *
+     * @param piece the piece, such as "gilet" or "casque" (not null)
+     * @return the pre-existing array of indices, in ascending order (not null,
+     * do not modify)
+     */
+    int[] forPiece(String piece) {
+        int[] result = lookup(byPiece, piece);
+        return result;
+    }
+
+    /**
+     * Find the names in the specified family.
+     *
+     * @param family the family, such as "armor01" (not null)
+     * @return the pre-existing array of indices, in ascending order (not null,
+     * do not modify)
+     */
+    int[] inFamily(String family) {
+        int[] result = lookup(byFamily, family);
+        return result;
+    }
+
+    /**
+     * Find the names for the specified race.
+     *
+     * @param race the race code, such as "fy" (not null)
+     * @return the pre-existing array of indices, in ascending order (not null,
+     * do not modify)
+     */
+    int[] ofRace(String race) {
+        int[] result = lookup(byRace, race);
+        return result;
+    }
+
+    /**
+     * Access the dictionary whose names were indexed.
+     *
+     * @return the pre-existing dictionary (not null)
+     */
+    FrontCodedDictionary source() {
+        return source;
+    }
+
+    /**
+     * Find the names with the specified color.
+     *
+     * @param color the color code, such as "c1" (not null)
+     * @return the pre-existing array of indices, in ascending order (not null,
+     * do not modify)
+     */
+    int[] withColor(String color) {
+        int[] result = lookup(byColor, color);
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Append an index to the postings for the specified key, unless the key
+     * is null or empty. Each postings array is a builder: element 0 holds the
+     * number of postings, and the array doubles in size when it fills up.
+     *
+     * @param map the map to modify (not null)
+     * @param key the key (may be null)
+     * @param index the index to append (&ge;0)
+     */
+    private static void addPosting(
+            Map<String, int[]> map, String key, int index) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+
+        int[] builder = map.get(key);
+        if (builder == null) {
+            builder = new int[8];
+            map.put(key, builder);
+        }
+        int numPostings = builder[0];
+        if (numPostings + 1 == builder.length) {
+            builder = Arrays.copyOf(builder, 2 * builder.length);
+            map.put(key, builder);
+        }
+        builder[numPostings + 1] = index;
+        builder[0] = numPostings + 1;
+    }
+
+    /**
+     * Trim postings builders to arrays of indices.
+     *
+     * @param map the builders to convert (not null, modified)
+     * @return the same map, made unmodifiable (not null)
+     */
+    private static Map<String, int[]> freeze(Map<String, int[]> map) {
+        for (Map.Entry<String, int[]> entry : map.entrySet()) {
+            int[] builder = entry.getValue();
+            int numPostings = builder[0];
+            int[] array = Arrays.copyOfRange(builder, 1, numPostings + 1);
+            entry.setValue(array);
+        }
+        Map<String, int[]> result = Collections.unmodifiableMap(map);
+
+        return result;
+    }
+
+    /**
+     * Look up the postings for the specified key.
+     *
+     * @param map the map to search (not null, unaffected)
+     * @param key the key (not null)
+     * @return the pre-existing array (not null)
+     */
+    private static int[] lookup(Map<String, int[]> map, String key) {
+        int[] result = map.get(key);
+        if (result == null) {
+            result = noMatches;
+        }
+
+        return result;
+    }
+}
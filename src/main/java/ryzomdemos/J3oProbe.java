@@ -0,0 +1,489 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read a String-valued user-data item from the root of a J3O file (written by
+ * BinaryExporter) without loading the model. Only the header, the root
+ * object's capsule, and the UserData capsule are read. Geometries, vertex
+ * buffers, materials, and textures are skipped entirely.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class J3oProbe {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * field type for a single byte
+     */
+    final private static byte byteType = 0;
+    /**
+     * field type for an int
+     */
+    final private static byte intType = 10;
+    /**
+     * field type for a boolean
+     */
+    final private static byte booleanType = 60;
+    /**
+     * field type for a String (also used for enums)
+     */
+    final private static byte stringType = 70;
+    /**
+     * field type for a reference to a Savable
+     */
+    final private static byte savableType = 90;
+    /**
+     * field type for an ArrayList of references to Savables
+     */
+    final private static byte savableListType = 100;
+    /**
+     * field type for a map from Strings to Savables
+     */
+    final private static byte stringSavableMapType = 106;
+    /**
+     * compressed-int value indicating a null object
+     */
+    final private static int nullObject = -1;
+    /**
+     * compressed-int value indicating a default object
+     */
+    final private static int defaultObject = -2;
+    /**
+     * signature at the start of a J3O file ("JME3")
+     */
+    final private static int signature = 0x4A4D4533;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(J3oProbe.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * index of the next byte to decode in the current capsule
+     */
+    private int index;
+    /**
+     * width of each class alias (in bytes)
+     */
+    private int aliasWidth;
+    /**
+     * ID of the root object
+     */
+    private int rootId;
+    /**
+     * file offset of the data section (in bytes)
+     */
+    private long dataStart;
+    /**
+     * field names: key = class alias, then field alias
+     */
+    final private Map<String, Map<Byte, String>> fieldNames = new HashMap<>();
+    /**
+     * field types: key = class alias, then field alias
+     */
+    final private Map<String, Map<Byte, Byte>> fieldTypes = new HashMap<>();
+    /**
+     * object locations relative to the data section: key = object ID
+     */
+    final private Map<Integer, Integer> locations = new HashMap<>();
+    /**
+     * channel to the J3O file
+     */
+    final private FileChannel channel;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a probe for the specified open channel.
+     *
+     * @param channel the channel to read (not null, alias created)
+     */
+    private J3oProbe(FileChannel channel) {
+        this.channel = channel;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Read the String value of the specified user-data item of the root
+     * Spatial in the specified J3O file.
+     *
+     * @param file the J3O file to read (not null)
+     * @param key the user-data key (not null)
+     * @return the String value, or null if the item wasn't found or the file
+     * couldn't be parsed
+     */
+    static String rootUserString(File file, String key) {
+        String result;
+        try (FileChannel channel
+                = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            J3oProbe probe = new J3oProbe(channel);
+            probe.readHeader();
+            result = probe.readUserString(key);
+
+        } catch (IOException | RuntimeException exception) {
+            logger.log(Level.FINE, "couldn''t probe {0}: {1}",
+                    new Object[]{file, exception});
+            result = null;
+        }
+
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Decode a compressed int from the specified capsule content.
+     *
+     * @param content the capsule content (not null, unaffected)
+     * @return the decoded value
+     */
+    private int readCompressedInt(byte[] content) {
+        int numBytes = content[index];
+        ++index;
+        if (numBytes == nullObject || numBytes == defaultObject) {
+            return numBytes;
+        } else if (numBytes < 0 || numBytes > 4) {
+            throw new IllegalStateException("numBytes=" + numBytes);
+        }
+
+        int result = 0;
+        for (int i = 0; i < numBytes; ++i) {
+            result = (result << 8) | (content[index] & 0xff);
+            ++index;
+        }
+
+        return result;
+    }
+
+    /**
+     * Decode a String from the specified capsule content.
+     *
+     * @param content the capsule content (not null, unaffected)
+     * @return the decoded String (may be null)
+     */
+    private String readCompressedString(byte[] content) {
+        int length = readCompressedInt(content);
+        if (length == nullObject) {
+            return null;
+        }
+
+        String result
+                = new String(content, index, length, StandardCharsets.UTF_8);
+        index += length;
+
+        return result;
+    }
+
+    /**
+     * Parse the file header: class table, location table, and root ID.
+     *
+     * @throws IOException if the header couldn't be read
+     */
+    private void readHeader() throws IOException {
+        channel.position(0L);
+        InputStream rawStream = Channels.newInputStream(channel);
+        DataInputStream stream
+                = new DataInputStream(new BufferedInputStream(rawStream));
+
+        int numClasses = stream.readInt();
+        long headerLength = 4L;
+        int formatVersion = 0;
+        if (numClasses == signature) {
+            formatVersion = stream.readInt();
+            numClasses = stream.readInt();
+            headerLength += 8L;
+        }
+        // same calculation as BinaryImporter, including the float rounding:
+        float log256 = (float) (Math.log(numClasses) / Math.log(256.0));
+        this.aliasWidth = (int) log256 + 1;
+
+        for (int classIndex = 0; classIndex < numClasses; ++classIndex) {
+            String alias = readHeaderString(stream, aliasWidth);
+            headerLength += aliasWidth;
+            if (formatVersion >= 1) {
+                int hierarchySize = stream.readUnsignedByte();
+                for (int i = 0; i < hierarchySize; ++i) {
+                    stream.readInt(); // class version, unused
+                }
+                headerLength += 1 + 4 * hierarchySize;
+            }
+            int classNameLength = stream.readInt();
+            readHeaderString(stream, classNameLength); // class name, unused
+            int numFields = stream.readInt();
+            headerLength += 8 + classNameLength;
+
+            Map<Byte, String> names = new HashMap<>(numFields);
+            Map<Byte, Byte> types = new HashMap<>(numFields);
+            for (int fieldIndex = 0; fieldIndex < numFields; ++fieldIndex) {
+                byte fieldAlias = stream.readByte();
+                byte fieldType = stream.readByte();
+                int nameLength = stream.readInt();
+                String fieldName = readHeaderString(stream, nameLength);
+                headerLength += 6 + nameLength;
+
+                names.put(fieldAlias, fieldName);
+                types.put(fieldAlias, fieldType);
+            }
+            fieldNames.put(alias, names);
+            fieldTypes.put(alias, types);
+        }
+
+        int numLocations = stream.readInt();
+        headerLength += 4;
+        for (int i = 0; i < numLocations; ++i) {
+            int id = stream.readInt();
+            int location = stream.readInt();
+            locations.put(id, location);
+        }
+        headerLength += 8L * numLocations;
+
+        stream.readInt(); // number of IDs, unused
+        this.rootId = stream.readInt();
+        headerLength += 8;
+        this.dataStart = headerLength;
+    }
+
+    /**
+     * Read a String of the specified length from the header.
+     *
+     * @param stream the header stream (not null)
+     * @param length the number of bytes to read (&ge;0)
+     * @return a new String (not null)
+     * @throws IOException if the stream ended prematurely
+     */
+    private static String readHeaderString(DataInputStream stream, int length)
+            throws IOException {
+        byte[] bytes = new byte[length];
+        stream.readFully(bytes);
+        String result = new String(bytes, StandardCharsets.ISO_8859_1);
+
+        return result;
+    }
+
+    /**
+     * Read the capsule of the identified object, without decoding it.
+     *
+     * @param id the object's ID
+     * @param aliasStore storage for the object's class alias (not null, length
+     * 1, modified)
+     * @return a new array containing the capsule content
+     * @throws IOException if the object couldn't be read
+     */
+    private byte[] readObjectContent(int id, String[] aliasStore)
+            throws IOException {
+        Integer location = locations.get(id);
+        if (location == null) {
+            throw new IOException("no location for id=" + id);
+        }
+
+        long position = dataStart + location;
+        ByteBuffer prefix = ByteBuffer.allocate(aliasWidth + 4);
+        readFully(prefix, position);
+        byte[] aliasBytes = new byte[aliasWidth];
+        prefix.get(aliasBytes);
+        aliasStore[0] = new String(aliasBytes, StandardCharsets.ISO_8859_1);
+        int dataLength = prefix.getInt();
+
+        ByteBuffer content = ByteBuffer.allocate(dataLength);
+        readFully(content, position + aliasWidth + 4);
+        byte[] result = content.array();
+
+        return result;
+    }
+
+    /**
+     * Fill the specified buffer from the channel, starting at the specified
+     * file position, then flip the buffer.
+     *
+     * @param buffer the buffer to fill (not null, modified)
+     * @param position the starting file position (in bytes, &ge;0)
+     * @throws IOException if the file ended prematurely
+     */
+    private void readFully(ByteBuffer buffer, long position)
+            throws IOException {
+        long filePosition = position;
+        while (buffer.hasRemaining()) {
+            int numRead = channel.read(buffer, filePosition);
+            if (numRead < 0) {
+                throw new IOException("unexpected end of file");
+            }
+            filePosition += numRead;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Find the specified user-data item of the root Spatial and read its
+     * String value.
+     *
+     * @param key the user-data key (not null)
+     * @return the String value, or null if not found
+     * @throws IOException if an object couldn't be read
+     */
+    private String readUserString(String key) throws IOException {
+        String[] alias = new String[1];
+        byte[] content = readObjectContent(rootId, alias);
+        Map<Byte, String> names = fieldNames.get(alias[0]);
+        Map<Byte, Byte> types = fieldTypes.get(alias[0]);
+
+        int valueId = nullObject;
+        this.index = 0;
+        while (index < content.length && valueId == nullObject) {
+            byte fieldAlias = content[index];
+            ++index;
+            String fieldName = names.get(fieldAlias);
+            byte fieldType = types.get(fieldAlias);
+            if (fieldName.equals("user_data")
+                    && fieldType == stringSavableMapType) {
+                valueId = findMapValue(content, key);
+                if (valueId == nullObject) {
+                    return null;
+                }
+            } else {
+                skipField(content, fieldType);
+            }
+        }
+        if (valueId == nullObject) {
+            return null; // no user data
+        }
+
+        // Decode the UserData object.
+        content = readObjectContent(valueId, alias);
+        names = fieldNames.get(alias[0]);
+        types = fieldTypes.get(alias[0]);
+        this.index = 0;
+        while (index < content.length) {
+            byte fieldAlias = content[index];
+            ++index;
+            String fieldName = names.get(fieldAlias);
+            byte fieldType = types.get(fieldAlias);
+            if (fieldName.equals("stringVal") && fieldType == stringType) {
+                String result = readCompressedString(content);
+                return result;
+            } else {
+                skipField(content, fieldType);
+            }
+        }
+
+        return null; // not a String
+    }
+
+    /**
+     * Decode a map from Strings to Savables and find the value for the
+     * specified key.
+     *
+     * @param content the capsule content (not null, unaffected)
+     * @param key the key to find (may be null)
+     * @return the ID of the value, or -1 if not found
+     */
+    private int findMapValue(byte[] content, String key) {
+        int size = readCompressedInt(content);
+        if (size == nullObject) {
+            return nullObject;
+        }
+
+        int numKeys = readCompressedInt(content);
+        int keyIndex = -1;
+        for (int i = 0; i < numKeys; ++i) {
+            String string = readCompressedString(content);
+            if (key != null && key.equals(string)) {
+                keyIndex = i;
+            }
+        }
+
+        int numValues = readCompressedInt(content);
+        int result = nullObject;
+        for (int i = 0; i < numValues; ++i) {
+            int id = readCompressedInt(content);
+            if (i == keyIndex) {
+                result = id;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Skip over a field value in the specified capsule content.
+     *
+     * @param content the capsule content (not null, unaffected)
+     * @param fieldType the type of the field
+     */
+    private void skipField(byte[] content, byte fieldType) {
+        int count;
+        switch (fieldType) {
+            case booleanType:
+            case byteType:
+                ++index;
+                break;
+
+            case intType:
+            case savableType:
+                readCompressedInt(content);
+                break;
+
+            case stringType:
+                readCompressedString(content);
+                break;
+
+            case savableListType:
+                count = readCompressedInt(content);
+                for (int i = 0; i < count; ++i) {
+                    readCompressedInt(content);
+                }
+                break;
+
+            case stringSavableMapType:
+                findMapValue(content, null);
+                break;
+
+            default:
+                String message = "fieldType=" + fieldType;
+                throw new IllegalStateException(message);
+        }
+    }
+}
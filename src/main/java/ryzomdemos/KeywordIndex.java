@@ -0,0 +1,287 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.logging.Logger;
+
+/**
+ * Inverted index from animation keywords to the animations that match them,
+ * for a single (skeletal group, gender). An animation matches a keyword if
+ * its name contains an underscore followed by the keyword. Immutable.
+ * <p>
+ * Keywords and animations are identified by their ranks in the corresponding
+ * sorted dictionaries. For each keyword, the index holds a sorted array of
+ * matching animation ranks (to select the Nth match) plus a bitset with
+ * cumulative counts (to find the position of any animation among the matches)
+ * so both queries take constant time without allocating.
+ * <p>
+ * Encoded layout (all integers big-endian): int number of animations, int
+ * number of keywords, then for each keyword: int number of matches followed
+ * by the rank of each matching animation, in ascending order.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class KeywordIndex {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * index with no keywords and no animations
+     */
+    final static KeywordIndex empty = new KeywordIndex(0, new int[0][]);
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(KeywordIndex.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of animations indexed
+     */
+    final private int numAnimations;
+    /**
+     * for each keyword, the number of matches preceding each 64-bit word of
+     * its bitset
+     */
+    final private int[][] counts;
+    /**
+     * for each keyword, the ranks of the matching animations in ascending
+     * order
+     */
+    final private int[][] postings;
+    /**
+     * for each keyword, a bitset of the matching animations
+     */
+    final private long[][] bits;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an index from its posting lists.
+     *
+     * @param numAnimations the number of animations indexed (&ge;0)
+     * @param postings the posting list for each keyword (not null, each sorted
+     * and in range, alias created)
+     */
+    private KeywordIndex(int numAnimations, int[][] postings) {
+        this.numAnimations = numAnimations;
+        this.postings = postings;
+
+        int numKeywords = postings.length;
+        int numWords = (numAnimations + 63) >> 6;
+        this.bits = new long[numKeywords][numWords];
+        this.counts = new int[numKeywords][numWords];
+        for (int keyword = 0; keyword < numKeywords; ++keyword) {
+            long[] words = bits[keyword];
+            for (int animation : postings[keyword]) {
+                words[animation >> 6] |= 1L << animation;
+            }
+            int sum = 0;
+            for (int word = 0; word < numWords; ++word) {
+                counts[keyword][word] = sum;
+                sum += Long.bitCount(words[word]);
+            }
+        }
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Build an index by testing every animation name against every keyword.
+     *
+     * @param animations the animation names (not null, unaffected)
+     * @param keywords the animation keywords (not null, unaffected)
+     * @return a new index
+     */
+    static KeywordIndex build(String[] animations, String[] keywords) {
+        int numAnimations = animations.length;
+        int numKeywords = keywords.length;
+        int[][] postings = new int[numKeywords][];
+        int[] buffer = new int[numAnimations];
+        for (int keyword = 0; keyword < numKeywords; ++keyword) {
+            String substring = "_" + keywords[keyword];
+            int numMatches = 0;
+            for (int animation = 0; animation < numAnimations; ++animation) {
+                if (animations[animation].contains(substring)) {
+                    buffer[numMatches] = animation;
+                    ++numMatches;
+                }
+            }
+            postings[keyword] = new int[numMatches];
+            System.arraycopy(buffer, 0, postings[keyword], 0, numMatches);
+        }
+        KeywordIndex result = new KeywordIndex(numAnimations, postings);
+
+        return result;
+    }
+
+    /**
+     * Determine the size of this index's encoding.
+     *
+     * @return the number of bytes (&ge;8)
+     */
+    int encodedBytes() {
+        int result = 8;
+        for (int[] posting : postings) {
+            result += 4 * (posting.length + 1);
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the animation at the specified position among those that match the
+     * specified keyword.
+     *
+     * @param keyword the rank of the keyword (&ge;0, &lt;numKeywords)
+     * @param position the position among the matches (&ge;0,
+     * &lt;numMatches)
+     * @return the rank of the animation (&ge;0)
+     */
+    int match(int keyword, int position) {
+        int result = postings[keyword][position];
+        return result;
+    }
+
+    /**
+     * Count the animations indexed.
+     *
+     * @return the count (&ge;0)
+     */
+    int numAnimations() {
+        return numAnimations;
+    }
+
+    /**
+     * Count the keywords indexed.
+     *
+     * @return the count (&ge;0)
+     */
+    int numKeywords() {
+        int result = postings.length;
+        return result;
+    }
+
+    /**
+     * Count the animations that match the specified keyword.
+     *
+     * @param keyword the rank of the keyword (&ge;0, &lt;numKeywords)
+     * @return the count (&ge;0)
+     */
+    int numMatches(int keyword) {
+        int result = postings[keyword].length;
+        return result;
+    }
+
+    /**
+     * Determine the position of the specified animation among those that
+     * match the specified keyword.
+     *
+     * @param keyword the rank of the keyword (&ge;0, &lt;numKeywords)
+     * @param animation the rank of the animation (&ge;0, &lt;numAnimations)
+     * @return the position (&ge;0) or -1 if the animation doesn't match
+     */
+    int position(int keyword, int animation) {
+        long word = bits[keyword][animation >> 6];
+        long bit = 1L << animation;
+        if ((word & bit) == 0L) {
+            return -1;
+        }
+
+        int result = counts[keyword][animation >> 6]
+                + Long.bitCount(word & (bit - 1L));
+        return result;
+    }
+
+    /**
+     * Decode an index from the specified buffer, starting at its current
+     * position. The position is advanced past the encoding.
+     *
+     * @param buffer the buffer to read (not null)
+     * @return a new index
+     * @throws IOException if the encoding is invalid
+     */
+    static KeywordIndex read(ByteBuffer buffer) throws IOException {
+        try {
+            int numAnimations = buffer.getInt();
+            int numKeywords = buffer.getInt();
+            if (numAnimations < 0 || numKeywords < 0
+                    || 4L * numKeywords > buffer.remaining()) {
+                throw new IOException("invalid keyword index");
+            }
+
+            int[][] postings = new int[numKeywords][];
+            for (int keyword = 0; keyword < numKeywords; ++keyword) {
+                int numMatches = buffer.getInt();
+                if (numMatches < 0 || numMatches > numAnimations
+                        || 4L * numMatches > buffer.remaining()) {
+                    throw new IOException("invalid keyword index");
+                }
+                int[] posting = new int[numMatches];
+                int previous = -1;
+                for (int i = 0; i < numMatches; ++i) {
+                    int animation = buffer.getInt();
+                    if (animation <= previous || animation >= numAnimations) {
+                        throw new IOException("invalid keyword index");
+                    }
+                    posting[i] = animation;
+                    previous = animation;
+                }
+                postings[keyword] = posting;
+            }
+            KeywordIndex result = new KeywordIndex(numAnimations, postings);
+
+            return result;
+
+        } catch (BufferUnderflowException exception) {
+            throw new IOException("truncated keyword index", exception);
+        }
+    }
+
+    /**
+     * Encode this index into the specified buffer, starting at its current
+     * position.
+     *
+     * @param buffer the buffer to write (not null, with at least
+     * {@link #encodedBytes()} remaining)
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(numAnimations);
+        buffer.putInt(postings.length);
+        for (int[] posting : postings) {
+            buffer.putInt(posting.length);
+            for (int animation : posting) {
+                buffer.putInt(animation);
+            }
+        }
+    }
+}
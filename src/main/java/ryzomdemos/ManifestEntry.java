@@ -0,0 +1,159 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Record the size, modification time, and content hash of an exported file,
+ * so that changes can be detected without re-analyzing the file. Immutable.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class ManifestEntry {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * size of the buffer used for hashing (in bytes)
+     */
+    final private static int bufferSize = 1 << 16;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ManifestEntry.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * CRC-32 of the file's contents
+     */
+    final private long hash;
+    /**
+     * time of the last modification (in milliseconds since the epoch)
+     */
+    final private long lastModified;
+    /**
+     * file size (in bytes)
+     */
+    final private long size;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an entry with the specified properties.
+     *
+     * @param size the file size (in bytes, &ge;0)
+     * @param lastModified the time of the last modification (in milliseconds
+     * since the epoch)
+     * @param hash the CRC-32 of the file's contents
+     */
+    ManifestEntry(long size, long lastModified, long hash) {
+        assert size >= 0L : size;
+
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Generate an entry for the specified file, reading its entire contents.
+     *
+     * @param file the file to describe (not null, readable)
+     * @return a new entry
+     */
+    static ManifestEntry describe(File file) {
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        try (FileChannel channel
+                = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+        long hash = crc.getValue();
+        ManifestEntry result = new ManifestEntry(size, lastModified, hash);
+
+        return result;
+    }
+
+    /**
+     * Read the content hash.
+     *
+     * @return the CRC-32 of the file's contents
+     */
+    long hash() {
+        return hash;
+    }
+
+    /**
+     * Read the modification time.
+     *
+     * @return the time (in milliseconds since the epoch)
+     */
+    long lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Test whether the specified file has the same size and modification time
+     * as recorded in this entry. The contents aren't examined.
+     *
+     * @param file the file to test (not null)
+     * @return true if they match, otherwise false
+     */
+    boolean matchesAttributes(File file) {
+        boolean result = file.length() == size
+                && file.lastModified() == lastModified;
+        return result;
+    }
+
+    /**
+     * Read the file size.
+     *
+     * @return the size (in bytes, &ge;0)
+     */
+    long size() {
+        return size;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.PrintStream;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * Console application to verify, over every exported geometry asset and
+ * animation name, that {@link AssetNameParser} infers genders and adjusts
+ * names exactly as the original string tests did. Each disagreement is
+ * printed.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class NameCheck {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(NameCheck.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of disagreements found
+     */
+    private static int numDisagreements;
+    /**
+     * stream for the report
+     */
+    private static PrintStream out;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Main entry point for the NameCheck application.
+     *
+     * @param ignored array of command-line arguments (not null)
+     */
+    public static void main(String[] ignored) {
+        int numWorkers = Runtime.getRuntime().availableProcessors();
+        ScanListener listener = new ProgressPrinter();
+        RyzomUtil.loadMaps(numWorkers, listener);
+
+        out = System.out;
+        out.println();
+
+        Set<String> geometryNames = new TreeSet<>();
+        for (BodyPart part : BodyPart.values()) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                String[] names = RyzomUtil
+                        .knownGeometries(part, genderCode).toArray();
+                for (String name : names) {
+                    geometryNames.add(name);
+                }
+            }
+        }
+        Set<String> animationNames = new TreeSet<>();
+        for (String groupName : RyzomUtil.groupNameArray) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                String[] names = RyzomUtil
+                        .knownAnimations(groupName, genderCode).toArray();
+                for (String name : names) {
+                    animationNames.add(name);
+                }
+            }
+        }
+
+        for (String name : geometryNames) {
+            AssetName parsed = RyzomUtil.parseAssetName(name);
+            compare(name, "gender", originalGender(name), parsed.genderCode());
+            checkAdjustments(name);
+        }
+        for (String name : animationNames) {
+            checkAdjustments(name);
+        }
+
+        out.printf("Checked %d geometry names and %d animation names:"
+                + " %d disagreement(s).%n", geometryNames.size(),
+                animationNames.size(), numDisagreements);
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Compare the gender adjustments of the specified name for both genders.
+     *
+     * @param name the name to check (not null)
+     */
+    private static void checkAdjustments(String name) {
+        AssetName parsed = RyzomUtil.parseAssetName(name);
+        for (String genderCode : RyzomUtil.genderCodeArray) {
+            compare(name, "adjusted for " + genderCode,
+                    originalAdjustment(name, genderCode),
+                    parsed.forGender(genderCode));
+        }
+    }
+
+    /**
+     * Compare the original result with the parser's, printing any
+     * disagreement.
+     *
+     * @param name the name being checked (not null)
+     * @param what a description of the result (not null)
+     * @param original the original result (may be null)
+     * @param parsed the parser's result (may be null)
+     */
+    private static void compare(
+            String name, String what, String original, String parsed) {
+        boolean agree = (original == null)
+                ? (parsed == null) : original.equals(parsed);
+        if (!agree) {
+            out.printf("%s %s: originally %s, now %s%n",
+                    name, what, original, parsed);
+            ++numDisagreements;
+        }
+    }
+
+    /**
+     * Adjust the specified name to match the specified gender, as the
+     * original Character.adjustForGender() did.
+     *
+     * @param name the name of an animation or asset (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the adjusted name (not null)
+     */
+    private static String originalAdjustment(String name, String genderCode) {
+        String result = name;
+        boolean isFemale = genderCode.equals("f");
+        boolean isMale = genderCode.equals("m");
+
+        // Make at most one substitution.
+        if (isFemale && result.contains("_hom_")) {
+            result = result.replace("_hom_", "_hof_");
+        } else if (isMale && result.contains("_hof_")) {
+            result = result.replace("_hof_", "_hom_");
+        } else if (isFemale && result.contains("_h_")) {
+            result = result.replace("_h_", "_f_");
+        } else if (isMale && result.contains("_f_")) {
+            result = result.replace("_f_", "_h_");
+        }
+
+        return result;
+    }
+
+    /**
+     * Infer the gender of a geometry asset from its name, as the original
+     * RyzomUtil.genderOfGeometryAsset() did.
+     *
+     * @param assetName (not null, not empty)
+     * @return "f" for female, "m" for male, or null if unknown (where the
+     * original threw an exception)
+     */
+    private static String originalGender(String assetName) {
+        String result = null;
+        String g3 = (assetName.length() < 6) ? "" : assetName.substring(3, 6);
+        if (g3.equals("hof")) {
+            result = "f";
+        } else if (g3.equals("hom")) {
+            result = "m";
+        } else if (assetName.contains("_f_")) {
+            result = "f";
+        } else if (assetName.contains("_h_")) {
+            result = "m";
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Append-only registry that assigns a dense int ID to each distinct name, in
+ * order of first registration. IDs remain valid for the life of the registry,
+ * so they may be stored in place of names and compared as primitives.
+ * Thread-safe: lookups are lock-free and only registrations are serialized.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class NameRegistry {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(NameRegistry.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of names registered
+     */
+    private volatile int size = 0;
+    /**
+     * ID of each registered name: key = name
+     */
+    final private Map<String, Integer> ids = new ConcurrentHashMap<>();
+    /**
+     * registered names, indexed by ID (replaced when it fills up)
+     */
+    private volatile String[] names = new String[64];
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Find the ID of the specified name, registering it if necessary.
+     *
+     * @param name the name to find (not null)
+     * @return the ID (&ge;0)
+     */
+    int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = register(name);
+        }
+
+        return id;
+    }
+
+    /**
+     * Access the name with the specified ID.
+     *
+     * @param id the ID returned by {@link #idOf(java.lang.String)} (&ge;0)
+     * @return the pre-existing name (not null)
+     */
+    String name(int id) {
+        String result = names[id];
+
+        assert result != null : id;
+        return result;
+    }
+
+    /**
+     * Count the registered names. All IDs are less than this count.
+     *
+     * @return the count (&ge;0)
+     */
+    int size() {
+        return size;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Register the specified name, unless another thread already has.
+     *
+     * @param name the name to register (not null)
+     * @return the ID of the name (&ge;0)
+     */
+    synchronized private Integer register(String name) {
+        Integer result = ids.get(name);
+        if (result == null) {
+            int id = size;
+            String[] array = names;
+            if (id == array.length) {
+                String[] grown = new String[2 * id];
+                System.arraycopy(array, 0, grown, 0, id);
+                array = grown;
+            }
+            array[id] = name;
+            // Publish the name before its ID, so name() never sees a gap.
+            names = array;
+            result = id;
+            ids.put(name, result);
+            size = id + 1;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * ScanListener to periodically print progress messages to System.out. Safe
+ * for use by multiple worker threads.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class ProgressPrinter implements ScanListener {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * status interval (in nanoseconds)
+     */
+    final private static long statusInterval = 1_000_000_000L;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ProgressPrinter.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * time of the next status message (in nanoseconds)
+     */
+    final private AtomicLong nextStatus = new AtomicLong(System.nanoTime());
+    // *************************************************************************
+    // ScanListener methods
+
+    /**
+     * Callback invoked each time a file has been analyzed. If the status
+     * interval has elapsed (or the scan is complete), print a status message.
+     *
+     * @param numAnalyzed the number of files analyzed so far (&ge;0)
+     * @param numFiles the number of files to be analyzed (&ge;numAnalyzed)
+     */
+    @Override
+    public void onProgress(int numAnalyzed, int numFiles) {
+        long now = System.nanoTime();
+        long next = nextStatus.get();
+        if (numAnalyzed == numFiles) {
+            printStatus(numAnalyzed, numFiles);
+        } else if (now >= next
+                && nextStatus.compareAndSet(next, now + statusInterval)) {
+            printStatus(numAnalyzed, numFiles);
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Print a status message to System.out.
+     *
+     * @param numAnalyzed the number of files analyzed (&ge;0)
+     * @param numFiles the number of files to be analyzed (&ge;numAnalyzed)
+     */
+    private static void printStatus(int numAnalyzed, int numFiles) {
+        float percentage
+                = (numFiles == 0) ? 100f : (100f * numAnalyzed) / numFiles;
+        String msg = String.format("%d of %d files analyzed (%.0f%%)",
+                numAnalyzed, numFiles, percentage);
+        System.out.println(msg);
+        System.out.flush();
+    }
+}
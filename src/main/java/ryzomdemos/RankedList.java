@@ -0,0 +1,148 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * A dictionary of names expressed in terms of registered IDs: the IDs in
+ * lexicographic order of their names, plus the rank of each ID. Immutable.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class RankedList {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(RankedList.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * dictionary from which the list was built
+     */
+    final private FrontCodedDictionary source;
+    /**
+     * the rank of each ID (or noId if not listed), indexed by ID
+     */
+    final private int[] ranks;
+    /**
+     * the IDs in lexicographic order of their names
+     */
+    final private int[] rankedIds;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a list from its components.
+     *
+     * @param source the dictionary of names (not null, alias created)
+     * @param rankedIds the IDs in rank order (not null, alias created)
+     * @param ranks the rank of each ID (not null, alias created)
+     */
+    private RankedList(
+            FrontCodedDictionary source, int[] rankedIds, int[] ranks) {
+        this.source = source;
+        this.rankedIds = rankedIds;
+        this.ranks = ranks;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Rank the names in the specified dictionary, assigning IDs as needed.
+     *
+     * @param dictionary the names to rank (not null, alias created)
+     * @param registry the registry that assigns IDs to the names (not null)
+     * @return a new list
+     */
+    static RankedList build(
+            FrontCodedDictionary dictionary, NameRegistry registry) {
+        String[] names = dictionary.toArray();
+        int numNames = names.length;
+        int[] ids = new int[numNames];
+        for (int rank = 0; rank < numNames; ++rank) {
+            ids[rank] = registry.idOf(names[rank]);
+        }
+        int[] rankOfId = new int[registry.size()];
+        Arrays.fill(rankOfId, AssetCatalog.noId);
+        for (int rank = 0; rank < numNames; ++rank) {
+            rankOfId[ids[rank]] = rank;
+        }
+
+        RankedList result = new RankedList(dictionary, ids, rankOfId);
+        return result;
+    }
+
+    /**
+     * Find the ID of the ranked name.
+     *
+     * @param rank the rank of the name (&ge;0, &lt;size)
+     * @return the ID (&ge;0)
+     */
+    int idAt(int rank) {
+        int result = rankedIds[rank];
+        return result;
+    }
+
+    /**
+     * Rank the identified name.
+     *
+     * @param id the ID of the name (&ge;0)
+     * @return the rank (&ge;0) or noId if not listed
+     */
+    int rank(int id) {
+        assert id >= 0 : id;
+
+        int result = (id < ranks.length) ? ranks[id] : AssetCatalog.noId;
+        return result;
+    }
+
+    /**
+     * Count the names in the list.
+     *
+     * @return the count (&ge;0)
+     */
+    int size() {
+        int result = rankedIds.length;
+        return result;
+    }
+
+    /**
+     * Access the dictionary from which the list was built.
+     *
+     * @return the pre-existing dictionary (not null)
+     */
+    FrontCodedDictionary source() {
+        return source;
+    }
+}
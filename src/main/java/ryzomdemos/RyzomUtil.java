@@ -28,23 +28,29 @@ package ryzomdemos;
 
 import com.jme3.animation.AnimControl;
 import com.jme3.asset.AssetManager;
+import com.jme3.asset.DesktopAssetManager;
 import com.jme3.asset.ModelKey;
-import com.jme3.export.binary.ByteUtils;
+import com.jme3.asset.plugins.ClasspathLocator;
+import com.jme3.asset.plugins.FileLocator;
+import com.jme3.export.binary.BinaryLoader;
+import com.jme3.material.plugins.J3MLoader;
 import com.jme3.scene.Spatial;
+import com.jme3.texture.plugins.AWTLoader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.EnumMap;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import jme3utilities.math.MyArray;
 import jme3utilities.math.noise.Generator;
@@ -52,6 +58,20 @@ import jme3utilities.math.noise.Generator;
 /**
  * Utility methods to interact with assets exported from the Ryzom Asset
  * Repository by Alweth's RyzomConverter.
+ * <p>
+ * The catalog of known geometries, animation names, and keywords is populated
+ * incrementally, so it may be queried (from any thread) while it's still
+ * loading. Each modification publishes a new immutable {@link AssetCatalog}
+ * through an atomic reference, so readers never lock and always see a
+ * consistent version. The names are stored front-coded, since sorted Ryzom
+ * names share long prefixes.
+ * <p>
+ * Assets may be spread across several asset roots, each described by its own
+ * summary shard. The catalog merges the shards with deterministic precedence:
+ * earlier roots win, matching the order in which their locators are
+ * registered. A geometry asset listed by an earlier root is ignored in later
+ * roots, and the animations for each skeletal group and gender come from the
+ * earliest root that exports them.
  *
  * @author Stephen Gold sgold@sonic.net
  */
@@ -59,10 +79,6 @@ class RyzomUtil {
     // *************************************************************************
     // constants and loggers
 
-    /**
-     * status interval (in nanoseconds)
-     */
-    final private static int statusInterval = 1_000_000_000;
     /**
      * message logger for this class
      */
@@ -73,13 +89,13 @@ class RyzomUtil {
      */
     final static String assetPathPrefix = "/ryzom-assets/export/";
     /**
-     * filesystem path to the asset root
+     * filesystem path to the asset root used when none are configured
      */
-    final static String assetRoot = "../RyzomConverter/assets";
+    final private static String defaultAssetRoot = "../RyzomConverter/assets";
     /**
-     * filesystem path to the summary file
+     * name of the system property that configures the asset roots
      */
-    final private static String summaryPathname = "./ryzom-summary.bin";
+    final private static String rootsProperty = "ryzomdemos.assetRoots";
     /**
      * all gender codes
      */
@@ -88,326 +104,285 @@ class RyzomUtil {
      * all skeletal-group names
      */
     final static String[] groupNameArray = {"ca", "ge"};
+    /**
+     * filesystem paths to the asset roots, in order of decreasing precedence
+     */
+    final static List<String> assetRoots = configuredAssetRoots();
     // *************************************************************************
     // fields
 
     /**
-     * all known geometry assets for female characters, each array sorted
-     * lexicographically
+     * pseudo-random generator
      */
-    final private static EnumMap<BodyPart, String[]> knownFemaleAssets
-            = new EnumMap<>(BodyPart.class);
+    final static Generator generator = new Generator();
     /**
-     * all known geometry assets for male characters, each array sorted
-     * lexicographically
+     * one shard for each asset root, in order of decreasing precedence
      */
-    final private static EnumMap<BodyPart, String[]> knownMaleAssets
-            = new EnumMap<>(BodyPart.class);
+    final private static List<CatalogShard> shards = createShards();
     /**
-     * pseudo-random generator
+     * parsed asset names, cached to make name queries table lookups: key =
+     * asset name or animation name
      */
-    final static Generator generator = new Generator();
+    final private static Map<String, AssetName> parsedNames
+            = new ConcurrentHashMap<>();
+    /**
+     * a reusable parser for each thread that parses names
+     */
+    final private static ThreadLocal<AssetNameParser> parsers
+            = new ThreadLocal<AssetNameParser>() {
+        @Override
+        protected AssetNameParser initialValue() {
+            AssetNameParser result = new AssetNameParser();
+            return result;
+        }
+    };
+    /**
+     * true if the catalog describes every exported asset, false if it's
+     * empty, partial, or stale
+     */
+    private static volatile boolean isCatalogComplete = false;
+    /**
+     * most recently published snapshot of the catalog (never null)
+     */
+    final private static AtomicReference<AssetCatalog> catalog
+            = new AtomicReference<>(captureCatalog(0));
     /**
-     * all known animation names: key = groupName + genderCode, each array
-     * sorted lexicographically
+     * true to watch the export directories and reload files that change while
+     * the application is running
      */
-    final private static Map<String, String[]> knownAnimations
-            = new TreeMap<>();
+    private static boolean hotReload = true;
     /**
-     * all known animation keywords: key = groupName + genderCode, each array
-     * sorted lexicographically
+     * true to classify geometry assets by probing their J3O headers, false to
+     * load each asset in full
      */
-    final private static Map<String, String[]> knownKeywords
-            = new TreeMap<>();
+    private static boolean probeHeaders = true;
+    /**
+     * true to test for asset existence in the filesystem even when the catalog
+     * is complete
+     */
+    private static boolean strictAssetChecks = false;
+    /**
+     * true to load every section of the catalog in the background once the
+     * first frame is on screen, false to load sections only on demand
+     */
+    private static boolean warmUp = true;
     // *************************************************************************
     // new methods exposed
 
     /**
-     * Test whether the named asset exists (among exported assets in the
-     * filesystem). Works for both animation assets and geometry assets.
+     * Test whether the named asset exists (among exported assets). Works for
+     * both animation assets and geometry assets. Once the catalog is complete,
+     * this is a hashed lookup in memory, unless strict checks are enabled.
+     * Until then (or in strict mode) the filesystem of each asset root is
+     * consulted.
      *
      * @param assetName (not null)
      * @return true if found, otherwise false
      */
     static boolean assetExists(String assetName) {
+        AssetCatalog snapshot = catalog.get();
+        if (snapshot.isComplete() && !strictAssetChecks) {
+            Set<String> assetNames = snapshot.exportedAssets();
+            boolean result = assetNames.contains(assetName);
+            return result;
+        }
+
         String fileName = assetName + ".j3o";
         String assetPath = assetPathPrefix + fileName;
-        String filePath = assetRoot + assetPath;
-        File file = new File(filePath);
-        boolean result = file.exists();
+        for (String assetRoot : assetRoots) {
+            File file = new File(assetRoot + assetPath);
+            if (file.exists()) {
+                return true;
+            }
+        }
 
-        return result;
+        return false;
     }
 
     /**
-     * Access the sorted array of known animation names for the specified gender
-     * and skeletal group. The assets must have been previously loaded by
-     * {@link #preloadAssets(com.jme3.asset.AssetManager)}.
+     * Determine the appropriate body part for a geometry asset. Unless header
+     * probing is disabled, the "ryzom_part" user data is read directly from
+     * the J3O file, falling back to loading the asset only if that fails.
      *
-     * @param groupName "ca" or "ge"
-     * @param genderCode "f" for female or "m" for male
-     * @return the pre-existing array of names (not null, in lexicographic
-     * order)
+     * @param assetRoot the filesystem path to the asset's root (not null)
+     * @param fileName the filename of the asset (ending in ".j3o")
+     * @param assetManager an AssetManager for the root (not null)
+     * @return an enum value (not null)
      */
-    static String[] knownAnimations(String groupName, String genderCode) {
-        String key = groupName + genderCode;
-        String[] result = knownAnimations.get(key);
+    static BodyPart bodyPart(
+            String assetRoot, String fileName, AssetManager assetManager) {
+        assert fileName.endsWith(".j3o");
+
+        BodyPart result = null;
+        if (probeHeaders) {
+            File file = new File(assetRoot + assetPathPrefix + fileName);
+            String partName = J3oProbe.rootUserString(file, "ryzom_part");
+            result = bodyPartForName(partName);
+        }
+
+        if (result == null) {
+            String assetPath = assetPathPrefix + fileName;
+            ModelKey key = new ModelKey(assetPath);
+            Spatial geometries = assetManager.loadAsset(key);
+            String partName = geometries.getUserData("ryzom_part");
+            result = bodyPartForName(partName);
+            if (result == null) {
+                throw new RuntimeException("partName=" + partName);
+            }
+        }
 
-        assert result != null;
         return result;
     }
 
     /**
-     * Access the sorted list of known geometry assets for the specified body
-     * part and gender. The assets must have been previously loaded by
-     * {@link #preloadAssets(com.jme3.asset.AssetManager)}.
+     * Access the most recently published snapshot of the catalog, expressed
+     * in terms of IDs. Doesn't block.
      *
-     * @param part (not null)
-     * @param genderCode "f" for female or "m" for male
-     * @return the internal array of asset names (not null, in lexicographic
-     * order)
+     * @return the pre-existing immutable snapshot (not null)
      */
-    static String[] knownGeometries(BodyPart part, String genderCode) {
-        EnumMap<BodyPart, String[]> map;
-        if (genderCode.equals("m")) {
-            map = knownMaleAssets;
-        } else {
-            assert genderCode.equals("f") : genderCode;
-            map = knownFemaleAssets;
-        }
-
-        String[] result = map.get(part);
-
-        assert MyArray.isSorted(result);
-        assert result != null;
+    static AssetCatalog catalog() {
+        AssetCatalog result = catalog.get();
         return result;
     }
 
     /**
-     * Access the sorted array of known keywords for the specified gender and
-     * skeletal group. The assets must have been previously loaded by
-     * {@link #preloadAssets(com.jme3.asset.AssetManager)}.
+     * Create an AssetManager capable of loading assets exported to the
+     * specified root, for use outside of an Application.
      *
-     * @param groupName "ca" or "ge"
-     * @param genderCode "f" for female or "m" for male
-     * @return the pre-existing array of animation keywords (not null, in
-     * lexicographic order)
+     * @param assetRoot the filesystem path to the asset root (not null)
+     * @return a new instance
      */
-    static String[] knownKeywords(String groupName, String genderCode) {
-        String mapKey = groupName + genderCode;
-        String[] result = knownKeywords.get(mapKey);
+    static AssetManager createAssetManager(String assetRoot) {
+        AssetManager result = new DesktopAssetManager();
+        result.registerLoader(AWTLoader.class, "png");
+        result.registerLoader(BinaryLoader.class, "j3o");
+        result.registerLoader(J3MLoader.class, "j3md");
+
+        result.registerLocator(assetRoot, FileLocator.class);
+        result.registerLocator(null, ClasspathLocator.class);
 
-        assert result != null;
         return result;
     }
 
     /**
-     * Preload all assets in the export directory. Assign each geometries asset
-     * to a list based on its body part and gender. Also build lists of
-     * animation names and keywords for each skeletal group and gender.
+     * Infer the gender of a geometry asset from its name.
      *
-     * @param assetManager the assetManager to use (not null)
-     */
-    static void preloadAssets(AssetManager assetManager) {
-        knownFemaleAssets.clear();
-        knownMaleAssets.clear();
-        knownAnimations.clear();
-
-        String directoryPath = assetRoot + assetPathPrefix;
-        File directory = new File(directoryPath);
-        assert directory.isDirectory() : directory.getAbsolutePath();
-        String[] fileNames = directory.list();
-        int numFiles = fileNames.length;
-
-        int progressCount = 0;
-        long nextStatus = System.nanoTime();
-        Map<String, Set<String>> tmpMap = new TreeMap<>();
-        for (String fileName : fileNames) {
-            if (fileName.matches("^(ca|fy|ge|ma|tr|zo).*$")) {
-                // geometries asset
-                BodyPart bodyPart = bodyPart(fileName, assetManager);
-                String assetName = fileName.replace(".j3o", "");
-                String genderCode = genderOfGeometryAsset(assetName);
-                String key = genderCode + bodyPart;
-                Set<String> names = tmpMap.get(key);
-                if (names == null) {
-                    names = new TreeSet<>();
-                    tmpMap.put(key, names);
-                }
-                names.add(assetName);
-
-            } else if (fileName.matches("^animations_.*$")) {
-                // animations asset
-                String[] animations = listAnimations(fileName, assetManager);
-                String groupName = fileName.substring(11, 13);
-                String genderCode = fileName.substring(16, 17);
-                String key = groupName + genderCode;
-                knownAnimations.put(key, animations);
-            }
-
-            ++progressCount;
-            if (System.nanoTime() >= nextStatus) {
-                printStatus(progressCount, numFiles);
-                nextStatus = System.nanoTime() + statusInterval;
-            }
-        }
-        printStatus(progressCount, numFiles);
-
-        for (BodyPart part : BodyPart.values()) {
-            String fKey = "f" + part;
-            Set<String> fNames = tmpMap.get(fKey);
-            String[] fArray = new String[fNames.size()];
-            fNames.toArray(fArray);
-            assert MyArray.isSorted(fArray);
-            knownFemaleAssets.put(part, fArray);
-
-            String mKey = "m" + part;
-            Set<String> mNames = tmpMap.get(mKey);
-            String[] mArray = new String[mNames.size()];
-            mNames.toArray(mArray);
-            assert MyArray.isSorted(mArray);
-            knownMaleAssets.put(part, mArray);
+     * @param assetName (not null, not empty)
+     * @return "f" for female or "m" for male
+     */
+    static String genderOfGeometryAsset(String assetName) {
+        AssetName parsed = parseAssetName(assetName);
+        String result = parsed.genderCode();
+        if (result == null) {
+            String msg = "assetName=" + assetName;
+            throw new RuntimeException(msg);
         }
 
-        populateKeywords();
+        return result;
     }
 
     /**
-     * Attempt to quickly populate the lists of geometries, animation names, and
-     * keywords by reading them from a well-known file.
+     * Access the secondary indexes (by race, family, piece, and color) of the
+     * known geometry assets for the specified body part and gender, in the
+     * most recently published snapshot. The indices they return are ranks in
+     * {@link #knownGeometries(ryzomdemos.BodyPart, java.lang.String)}.
      *
-     * @return true if successful, otherwise false
-     */
-    static boolean readMaps() {
-        knownFemaleAssets.clear();
-        knownMaleAssets.clear();
-        knownAnimations.clear();
-
-        File file = new File(summaryPathname);
-        FileInputStream inputStream;
-        try {
-            inputStream = new FileInputStream(file);
-        } catch (FileNotFoundException exception) {
-            return false;
-        }
-
-        try {
-            readMaps(inputStream);
-        } catch (IOException exception) {
-            try {
-                inputStream.close();
-            } catch (IOException ex) {
-            }
-            return false;
-        }
-
-        return true;
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing indexes (not null)
+     */
+    static GeometryIndex geometryIndex(BodyPart part, String genderCode) {
+        GeometryIndex result = catalog().geometryIndex(part, genderCode);
+        return result;
     }
 
     /**
-     * Attempt to write the lists of geometries, animation names, and keywords
-     * to a well-known file.
+     * Find the ranks of the known geometry assets for the specified body part
+     * and gender whose names begin with the specified prefix, in the most
+     * recently published snapshot.
      *
-     * @return true if successful, otherwise false
-     */
-    static boolean writeMaps() {
-        File file = new File(summaryPathname);
-        FileOutputStream outputStream;
-        try {
-            outputStream = new FileOutputStream(file);
-        } catch (FileNotFoundException exception) {
-            return false;
-        }
-
-        try {
-            writeMaps(outputStream);
-        } catch (IOException exception) {
-            try {
-                outputStream.close();
-            } catch (IOException ex) {
-            }
-            file.delete();
-
-            return false;
-        }
-
-        return true;
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @param prefix the prefix to match (not null, may be empty)
+     * @param storeResult storage for the result (modified if not null)
+     * @return the rank of the first match followed by the rank after the last
+     * match (either storeResult or a new array of length 2)
+     */
+    static int[] geometryPrefixRange(BodyPart part, String genderCode,
+            String prefix, int[] storeResult) {
+        int[] result = catalog().geometryPrefixRange(
+                part, genderCode, prefix, storeResult);
+        return result;
     }
-    // *************************************************************************
-    // private methods
 
     /**
-     * Determine the appropriate body part for a geometry asset.
+     * Access the dictionary of known animation names for the specified gender
+     * and skeletal group, in the most recently published snapshot. While
+     * {@link #loadMaps(int, ryzomdemos.ScanListener)} is in progress, the
+     * dictionary may be empty.
      *
-     * @param fileName the filename of the asset (ending in ".j3o")
-     * @param assetManager (not null)
-     * @return an enum value (not null)
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing dictionary of names (not null)
      */
-    private static BodyPart bodyPart(
-            String fileName, AssetManager assetManager) {
-        assert fileName.endsWith(".j3o");
-
-        String assetPath = assetPathPrefix + fileName;
-        ModelKey key = new ModelKey(assetPath);
-        Spatial geometries = assetManager.loadAsset(key);
-        String partName = geometries.getUserData("ryzom_part");
+    static FrontCodedDictionary knownAnimations(
+            String groupName, String genderCode) {
+        FrontCodedDictionary result
+                = catalog().knownAnimations(groupName, genderCode);
+        return result;
+    }
 
-        BodyPart result;
-        switch (partName) {
-            case "ARMOR_ARMPADS":
-                result = BodyPart.Arms;
-                break;
-            case "ARMOR_BOOTS":
-                result = BodyPart.Feet;
-                break;
-            case "ARMOR_CHEST":
-                result = BodyPart.Torso;
-                break;
-            case "ARMOR_HANDS":
-            case "GAUNTLET":
-                result = BodyPart.Hands;
-                break;
-            case "ARMOR_PANTS":
-                result = BodyPart.Legs;
-                break;
-            case "FACE":
-                result = BodyPart.Face;
-                break;
-            case "ARMOR_HELMET":
-            case "HAIR":
-                result = BodyPart.Head;
-                break;
-            default:
-                throw new RuntimeException("partName=" + partName);
-        }
+    /**
+     * Access the dictionary of known geometry assets for the specified body
+     * part and gender, in the most recently published snapshot. While
+     * {@link #loadMaps(int, ryzomdemos.ScanListener)} is in progress, it
+     * includes only the assets discovered so far.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing dictionary of asset names (not null)
+     */
+    static FrontCodedDictionary knownGeometries(
+            BodyPart part, String genderCode) {
+        FrontCodedDictionary result
+                = catalog().knownGeometries(part, genderCode);
+        return result;
+    }
 
-        assert result != null;
+    /**
+     * Access the dictionary of known keywords for the specified gender and
+     * skeletal group, in the most recently published snapshot. While
+     * {@link #loadMaps(int, ryzomdemos.ScanListener)} is in progress, the
+     * dictionary may be empty.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing dictionary of animation keywords (not null)
+     */
+    static FrontCodedDictionary knownKeywords(
+            String groupName, String genderCode) {
+        FrontCodedDictionary result
+                = catalog().knownKeywords(groupName, genderCode);
         return result;
     }
 
     /**
-     * Infer the gender of a geometry asset from its name.
+     * Test whether exported files that change should be reloaded while the
+     * application is running.
      *
-     * @param assetName (not null, not empty)
-     * @return "f" for female or "m" for male
+     * @return true if enabled (the default), otherwise false
      */
-    private static String genderOfGeometryAsset(String assetName) {
-        String result;
-        String g3 = assetName.substring(3, 6);
-        if (g3.equals("hof")) {
-            result = "f";
-        } else if (g3.equals("hom")) {
-            result = "m";
-        } else if (assetName.contains("_f_")) {
-            result = "f";
-        } else if (assetName.contains("_h_")) {
-            result = "m";
-        } else {
-            String msg = "assetName=" + assetName;
-            throw new RuntimeException(msg);
-        }
+    static boolean isHotReloadEnabled() {
+        return hotReload;
+    }
 
-        return result;
+    /**
+     * Test whether the catalog should be warmed up in the background.
+     *
+     * @return true if enabled (the default), otherwise false
+     */
+    static boolean isWarmUpEnabled() {
+        return warmUp;
     }
 
     /**
@@ -417,7 +392,7 @@ class RyzomUtil {
      * @param assetManager (not null)
      * @return a new vector of names in lexicographic order
      */
-    private static String[] listAnimations(
+    static String[] listAnimations(
             String fileName, AssetManager assetManager) {
         String genderCode = fileName.substring(16, 17);
         String groupName = fileName.substring(11, 13);
@@ -442,182 +417,295 @@ class RyzomUtil {
     }
 
     /**
-     * Populate the arrays of known animation keywords.
-     */
-    private static void populateKeywords() {
-        for (String groupName : groupNameArray) {
-            for (String genderCode : genderCodeArray) {
-                Set<String> keywordSet = new TreeSet<>();
-                String[] nameArray = knownAnimations(groupName, genderCode);
-                for (String name : nameArray) {
-                    String[] words = name.split("_");
-                    for (String word : words) {
-                        // trim trailing digits
-                        while (word.matches("^.+[0-9]$")) {
-                            word = word.substring(0, word.length() - 1);
-                        }
-                        // exclude short words and ones that appear very often
-                        if (word.length() >= 3 && !word.equals("end")
-                                && !word.equals("hof") && !word.equals("hom")) {
-                            keywordSet.add(word);
-                        }
-                    }
-                }
-                int numKeywords = keywordSet.size();
-                String[] keywords = new String[numKeywords];
-                keywordSet.toArray(keywords);
-                assert MyArray.isSorted(keywords);
+     * Populate the catalog as quickly as possible by loading the shard of each
+     * asset root, all in parallel. Each shard reads its own summary file,
+     * patches it, or rebuilds it, independently of the others. See
+     * {@link CatalogShard#loadMaps(int, ryzomdemos.ScanListener)}.
+     *
+     * @param numWorkers the number of worker threads for a full preload of
+     * any one shard (&ge;1)
+     * @param listener the listener to notify of progress, summed over all
+     * shards (not null)
+     */
+    static void loadMaps(int numWorkers, ScanListener listener) {
+        assert numWorkers >= 1 : numWorkers;
 
-                String key = groupName + genderCode;
-                knownKeywords.put(key, keywords);
+        isCatalogComplete = false;
+        publishCatalog();
+
+        int numShards = shards.size();
+        if (numShards == 1) {
+            shards.get(0).loadMaps(numWorkers, listener);
+        } else {
+            int[] counts = new int[2 * numShards];
+            ExecutorService pool = Executors.newFixedThreadPool(numShards);
+            List<Future<?>> futures = new ArrayList<>(numShards);
+            for (int shardIndex = 0; shardIndex < numShards; ++shardIndex) {
+                Runnable loader = shardLoader(
+                        shardIndex, numWorkers, counts, listener);
+                futures.add(pool.submit(loader));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException exception) {
+                throw new RuntimeException(exception.getCause());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(exception);
+            } finally {
+                pool.shutdown();
             }
         }
+
+        isCatalogComplete = true;
+        publishCatalog();
     }
 
     /**
-     * Print a status message to System.out while preloading assets.
+     * Parse the specified asset name or animation name, caching the result.
+     * Thread-safe.
      *
-     * @param progressCount the number of files processed (&ge;0)
-     * @param numFiles the number of files to be processed (&gt;0)
-     */
-    private static void printStatus(int progressCount, int numFiles) {
-        float percentage = (100f * progressCount) / numFiles;
-        String msg = String.format("%d of %d files analyzed (%.0f%%)",
-                progressCount, numFiles, percentage);
-        System.out.println(msg);
-        System.out.flush();
+     * @param name the name to parse (not null, not empty)
+     * @return the cached record (not null)
+     */
+    static AssetName parseAssetName(String name) {
+        AssetName result = parsedNames.get(name);
+        if (result == null) {
+            AssetNameParser parser = parsers.get();
+            parser.parse(name);
+            result = parser.toAssetName();
+            parsedNames.put(name, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Publish a new snapshot of the catalog that captures the current state of
+     * every shard. Invoked after a shard has been read, cleared, or patched.
+     * Lock-free: if another thread publishes concurrently, the snapshot is
+     * recaptured, so the last one published always reflects every shard
+     * modification that preceded it.
+     */
+    static void publishCatalog() {
+        AssetCatalog oldCatalog;
+        AssetCatalog newCatalog;
+        do {
+            oldCatalog = catalog.get();
+            newCatalog = captureCatalog(oldCatalog.revision() + 1);
+        } while (!catalog.compareAndSet(oldCatalog, newCatalog));
     }
 
     /**
-     * Populate the lists of geometries, animation names, and keywords by
-     * reading them from the specified Stream.
+     * Alter how {@link #assetExists(java.lang.String)} behaves once the
+     * catalog is complete.
      *
-     * @param listStream the Stream to read (not null)
+     * @param enable true to always test in the filesystem, false to test in
+     * memory (the default)
      */
-    private static void readMaps(InputStream listsStream) throws IOException {
-        for (BodyPart part : BodyPart.values()) {
-            String[] fArray = readStringArray(listsStream);
-            knownFemaleAssets.put(part, fArray);
+    static void setStrictAssetChecks(boolean enable) {
+        strictAssetChecks = enable;
+    }
 
-            String[] mArray = readStringArray(listsStream);
-            knownMaleAssets.put(part, mArray);
-        }
+    /**
+     * Alter how geometry assets are classified during preloading.
+     *
+     * @param enable true to probe J3O headers (the default), false to load
+     * each asset in full
+     */
+    static void setProbeHeaders(boolean enable) {
+        probeHeaders = enable;
+    }
 
-        for (String groupName : RyzomUtil.groupNameArray) {
-            for (String genderCode : RyzomUtil.genderCodeArray) {
-                String key = groupName + genderCode;
+    /**
+     * Alter whether exported files that change are reloaded while the
+     * application is running.
+     *
+     * @param enable true to watch the export directories (the default), false
+     * to ignore changes until the next run
+     */
+    static void setHotReload(boolean enable) {
+        hotReload = enable;
+    }
 
-                String[] animationNames = readStringArray(listsStream);
-                knownAnimations.put(key, animationNames);
+    /**
+     * Alter whether the catalog is warmed up in the background.
+     *
+     * @param enable true to warm up the catalog (the default), false to load
+     * sections only on demand
+     */
+    static void setWarmUp(boolean enable) {
+        warmUp = enable;
+    }
 
-                String[] animationKeywords = readStringArray(listsStream);
-                knownKeywords.put(key, animationKeywords);
-            }
-        }
+    /**
+     * Access the shards of the catalog.
+     *
+     * @return an unmodifiable list, in order of decreasing precedence (not
+     * null, not empty)
+     */
+    static List<CatalogShard> shards() {
+        return shards;
     }
 
     /**
-     * Read a String from the specified Stream.
+     * Load every section of the catalog that hasn't been loaded yet, so later
+     * queries won't need to decode or index anything. Intended for use on a
+     * background thread.
+     */
+    static void warmUpCatalog() {
+        AssetCatalog snapshot = catalog();
+        snapshot.warmUp();
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Translate the value of a "ryzom_part" user-data item to a body part.
      *
-     * @param inputStream (not null)
-     * @return the String that was read (may be null)
-     * @throws IOException
+     * @param partName the value to translate (may be null)
+     * @return an enum value, or null if not recognized
      */
-    private static String readString(InputStream inputStream)
-            throws IOException {
-        int lengthInBytes = ByteUtils.readInt(inputStream);
+    private static BodyPart bodyPartForName(String partName) {
+        if (partName == null) {
+            return null;
+        }
 
-        String result;
-        if (lengthInBytes == -1) {
-            result = null;
-        } else {
-            byte[] byteArray = new byte[lengthInBytes];
-            ByteUtils.readData(byteArray, lengthInBytes, inputStream);
-            result = new String(byteArray);
+        BodyPart result;
+        switch (partName) {
+            case "ARMOR_ARMPADS":
+                result = BodyPart.Arms;
+                break;
+            case "ARMOR_BOOTS":
+                result = BodyPart.Feet;
+                break;
+            case "ARMOR_CHEST":
+                result = BodyPart.Torso;
+                break;
+            case "ARMOR_HANDS":
+            case "GAUNTLET":
+                result = BodyPart.Hands;
+                break;
+            case "ARMOR_PANTS":
+                result = BodyPart.Legs;
+                break;
+            case "FACE":
+                result = BodyPart.Face;
+                break;
+            case "ARMOR_HELMET":
+            case "HAIR":
+                result = BodyPart.Head;
+                break;
+            default:
+                result = null;
         }
 
         return result;
     }
 
     /**
-     * Read an array of strings from the specified Stream.
+     * Capture the current state of every shard in a new snapshot of the
+     * catalog.
      *
-     * @param inputStream (not null)
-     * @return the Array that was read (not null, may contains nulls)
-     * @throws IOException
-     */
-    private static String[] readStringArray(InputStream inputStream)
-            throws IOException {
-        int length = ByteUtils.readInt(inputStream);
-        String[] result = new String[length];
-        for (int arrayIndex = 0; arrayIndex < length; ++arrayIndex) {
-            result[arrayIndex] = readString(inputStream);
+     * @param revision the revision number to assign (&ge;0)
+     * @return a new snapshot
+     */
+    private static AssetCatalog captureCatalog(int revision) {
+        int numShards = shards.size();
+        ShardSnapshot[] snapshots = new ShardSnapshot[numShards];
+        for (int i = 0; i < numShards; ++i) {
+            snapshots[i] = shards.get(i).snapshot();
         }
+        AssetCatalog result
+                = new AssetCatalog(revision, snapshots, isCatalogComplete);
 
         return result;
     }
 
     /**
-     * Write the lists of geometries, animation names, and keywords to the
-     * specified Stream.
+     * Determine the asset roots from the "ryzomdemos.assetRoots" system
+     * property, a list of filesystem paths separated by
+     * {@link File#pathSeparator}.
      *
-     * @param listStream the Stream to write (not null)
+     * @return a new unmodifiable list without duplicates, in order of
+     * decreasing precedence (not null, not empty)
      */
-    private static void writeMaps(OutputStream listsStream) throws IOException {
-        for (BodyPart part : BodyPart.values()) {
-            String[] fArray = knownFemaleAssets.get(part);
-            writeStringArray(listsStream, fArray);
-
-            String[] mArray = knownMaleAssets.get(part);
-            writeStringArray(listsStream, mArray);
+    private static List<String> configuredAssetRoots() {
+        String property = System.getProperty(rootsProperty, defaultAssetRoot);
+        Set<String> roots = new LinkedHashSet<>();
+        for (String path : property.split(File.pathSeparator)) {
+            String trimmed = path.trim();
+            if (!trimmed.isEmpty()) {
+                roots.add(trimmed);
+            }
+        }
+        if (roots.isEmpty()) {
+            roots.add(defaultAssetRoot);
         }
 
-        for (String groupName : RyzomUtil.groupNameArray) {
-            for (String genderCode : RyzomUtil.genderCodeArray) {
-                String key = groupName + genderCode;
-
-                String[] animationNames = knownAnimations.get(key);
-                writeStringArray(listsStream, animationNames);
+        List<String> result = new ArrayList<>(roots);
+        result = Collections.unmodifiableList(result);
 
-                String[] animationKeywords = knownKeywords.get(key);
-                writeStringArray(listsStream, animationKeywords);
-            }
-        }
+        return result;
     }
 
     /**
-     * Write a String to the specified Stream.
+     * Create a shard for each asset root.
      *
-     * @param inputStream (not null)
-     * @return the String to write (may be null)
-     * @throws IOException
-     */
-    private static void writeString(OutputStream outputStream, String string)
-            throws IOException {
-        if (string == null) {
-            ByteUtils.writeInt(outputStream, -1);
-        } else {
-            byte[] byteArray = string.getBytes();
-            int lengthInBytes = byteArray.length;
-            ByteUtils.writeInt(outputStream, lengthInBytes);
-            outputStream.write(byteArray);
+     * @return a new unmodifiable list, in order of decreasing precedence (not
+     * null, not empty)
+     */
+    private static List<CatalogShard> createShards() {
+        List<CatalogShard> result = new ArrayList<>(assetRoots.size());
+        for (String assetRoot : assetRoots) {
+            result.add(new CatalogShard(assetRoot));
         }
+        result = Collections.unmodifiableList(result);
+
+        return result;
     }
 
     /**
-     * Write an array of strings to the specified Stream.
+     * Create a task to load the specified shard, reporting its progress as
+     * part of a sum over all shards.
      *
-     * @param outputStream (not null)
-     * @param array the Array to write (not null, may contains nulls,
-     * unaffected)
-     * @throws IOException
-     */
-    private static void writeStringArray(
-            OutputStream outputStream, String[] array) throws IOException {
-        int length = array.length;
-        ByteUtils.writeInt(outputStream, length);
-        for (int arrayIndex = 0; arrayIndex < length; ++arrayIndex) {
-            writeString(outputStream, array[arrayIndex]);
-        }
+     * @param shardIndex the index of the shard to load (&ge;0)
+     * @param numWorkers the number of worker threads for a full preload
+     * (&ge;1)
+     * @param counts the number of files analyzed and the number to be
+     * analyzed, for each shard (not null, alias created)
+     * @param listener the listener to notify of the sums (not null)
+     * @return a new task
+     */
+    private static Runnable shardLoader(final int shardIndex,
+            final int numWorkers, final int[] counts,
+            final ScanListener listener) {
+        final ScanListener shardListener = new ScanListener() {
+            @Override
+            public void onProgress(int numAnalyzed, int numFiles) {
+                synchronized (counts) {
+                    counts[2 * shardIndex] = numAnalyzed;
+                    counts[2 * shardIndex + 1] = numFiles;
+                    int sumAnalyzed = 0;
+                    int sumFiles = 0;
+                    for (int i = 0; i < counts.length; i += 2) {
+                        sumAnalyzed += counts[i];
+                        sumFiles += counts[i + 1];
+                    }
+                    listener.onProgress(sumAnalyzed, sumFiles);
+                }
+            }
+        };
+        Runnable result = new Runnable() {
+            @Override
+            public void run() {
+                CatalogShard shard = shards.get(shardIndex);
+                shard.loadMaps(numWorkers, shardListener);
+            }
+        };
+
+        return result;
     }
 }
@@ -0,0 +1,88 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Count the files analyzed during an asset scan and notify a listener. Safe
+ * for use by multiple worker threads.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class ScanProgress {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ScanProgress.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of files analyzed so far
+     */
+    final private AtomicInteger progressCount = new AtomicInteger(0);
+    /**
+     * number of files to be analyzed
+     */
+    final private int numFiles;
+    /**
+     * listener to notify (not null)
+     */
+    final private ScanListener listener;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a counter for the specified number of files.
+     *
+     * @param numFiles the number of files to be analyzed (&ge;0)
+     * @param listener the listener to notify (not null, alias created)
+     */
+    ScanProgress(int numFiles, ScanListener listener) {
+        assert numFiles >= 0 : numFiles;
+        assert listener != null;
+
+        this.numFiles = numFiles;
+        this.listener = listener;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Note that one more file has been analyzed and notify the listener.
+     */
+    void increment() {
+        int count = progressCount.incrementAndGet();
+        listener.onProgress(count, numFiles);
+    }
+}
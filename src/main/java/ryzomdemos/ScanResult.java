@@ -0,0 +1,200 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.asset.AssetManager;
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * Accumulate the results of analyzing exported assets: the names of geometry
+ * assets, sorted by gender and body part, the animation names for each
+ * skeletal group and gender, plus a manifest entry for each analyzed file.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class ScanResult {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ScanResult.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * animation names: key = groupName + genderCode, each array sorted
+     * lexicographically
+     */
+    final private Map<String, String[]> animations = new TreeMap<>();
+    /**
+     * geometry-asset names: key = genderCode + part
+     */
+    final private Map<String, Set<String>> geometries = new TreeMap<>();
+    /**
+     * manifest entries for all analyzed files: key = filename
+     */
+    final private Map<String, ManifestEntry> manifest = new TreeMap<>();
+    /**
+     * shard to which recognized assets are published (not null)
+     */
+    final private CatalogShard shard;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an empty result for a scan of the specified shard's asset
+     * root.
+     *
+     * @param shard the shard being scanned (not null, alias created)
+     */
+    ScanResult(CatalogShard shard) {
+        assert shard != null;
+        this.shard = shard;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Analyze the specified file and add the results to this instance. Each
+     * recognized asset is also published to the shard right away, so it
+     * can be selected before the scan completes. Files that aren't recognized
+     * as geometry assets or animation assets are entered in the manifest but
+     * otherwise ignored.
+     *
+     * @param fileName the filename of the asset (ending in ".j3o")
+     * @param assetManager the AssetManager to use (not null)
+     */
+    void analyze(String fileName, AssetManager assetManager) {
+        String assetRoot = shard.assetRoot();
+        String filePath = assetRoot + RyzomUtil.assetPathPrefix + fileName;
+        ManifestEntry entry = ManifestEntry.describe(new File(filePath));
+        manifest.put(fileName, entry);
+
+        if (AssetNameParser.hasRacePrefix(fileName)) {
+            // geometries asset
+            BodyPart bodyPart
+                    = RyzomUtil.bodyPart(assetRoot, fileName, assetManager);
+            String assetName = fileName.replace(".j3o", "");
+            String genderCode = RyzomUtil.genderOfGeometryAsset(assetName);
+            String key = genderCode + bodyPart;
+            Set<String> names = geometries.get(key);
+            if (names == null) {
+                names = new TreeSet<>();
+                geometries.put(key, names);
+            }
+            names.add(assetName);
+            shard.publishGeometry(bodyPart, genderCode, assetName);
+
+        } else if (fileName.startsWith("animations_")) {
+            // animations asset
+            String[] names = RyzomUtil.listAnimations(fileName, assetManager);
+            String groupName = fileName.substring(11, 13);
+            String genderCode = fileName.substring(16, 17);
+            String key = groupName + genderCode;
+            animations.put(key, names);
+            shard.publishAnimations(groupName, genderCode, names);
+        }
+    }
+
+    /**
+     * Access the sorted array of animation names for the specified skeletal
+     * group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the pre-existing array (in lexicographic order) or null if not
+     * found
+     */
+    String[] animations(String groupName, String genderCode) {
+        String key = groupName + genderCode;
+        String[] result = animations.get(key);
+
+        return result;
+    }
+
+    /**
+     * Enumerate the geometry assets for the specified body part and gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return a new array of asset names (not null, in lexicographic order)
+     */
+    String[] geometries(BodyPart part, String genderCode) {
+        String key = genderCode + part;
+        Set<String> names = geometries.get(key);
+
+        String[] result;
+        if (names == null) {
+            result = new String[0];
+        } else {
+            result = new String[names.size()];
+            names.toArray(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the manifest entries of all analyzed files.
+     *
+     * @return the pre-existing map from filenames to entries (not null)
+     */
+    Map<String, ManifestEntry> manifest() {
+        return manifest;
+    }
+
+    /**
+     * Merge the results of another scan into this instance.
+     *
+     * @param other the results to merge (not null, unaffected)
+     * @return this instance for chaining
+     */
+    ScanResult merge(ScanResult other) {
+        for (Map.Entry<String, Set<String>> entry
+                : other.geometries.entrySet()) {
+            String key = entry.getKey();
+            Set<String> names = geometries.get(key);
+            if (names == null) {
+                names = new TreeSet<>();
+                geometries.put(key, names);
+            }
+            names.addAll(entry.getValue());
+        }
+        animations.putAll(other.animations);
+        manifest.putAll(other.manifest);
+
+        return this;
+    }
+}
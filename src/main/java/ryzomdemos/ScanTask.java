@@ -0,0 +1,142 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.asset.AssetManager;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+/**
+ * Fork/join task to analyze a range of exported files. Each worker thread
+ * loads assets using its own private AssetManager.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class ScanTask extends RecursiveTask<ScanResult> {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * maximum number of files to analyze without forking
+     */
+    final private static int maxFilesPerTask = 16;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ScanTask.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * index of the first file to analyze
+     */
+    final private int fromIndex;
+    /**
+     * index after the last file to analyze
+     */
+    final private int toIndex;
+    /**
+     * progress tracker shared by all tasks in the scan
+     */
+    final private ScanProgress progress;
+    /**
+     * shard whose asset root is being scanned
+     */
+    final private CatalogShard shard;
+    /**
+     * filenames of all files in the scan
+     */
+    final private String[] fileNames;
+    /**
+     * a private AssetManager for each worker thread
+     */
+    final private ThreadLocal<AssetManager> workerManagers;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a task to analyze the specified range of files.
+     *
+     * @param shard the shard whose asset root is being scanned (not null,
+     * alias created)
+     * @param fileNames the filenames of all files in the scan (not null, alias
+     * created)
+     * @param fromIndex the index of the first file to analyze (&ge;0)
+     * @param toIndex the index after the last file to analyze
+     * (&ge;fromIndex)
+     * @param workerManagers a private AssetManager for each worker thread
+     * (not null, alias created)
+     * @param progress the progress tracker (not null, alias created)
+     */
+    ScanTask(CatalogShard shard, String[] fileNames, int fromIndex,
+            int toIndex, ThreadLocal<AssetManager> workerManagers,
+            ScanProgress progress) {
+        assert fromIndex >= 0 : fromIndex;
+        assert toIndex >= fromIndex : toIndex;
+
+        this.shard = shard;
+        this.fileNames = fileNames;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.workerManagers = workerManagers;
+        this.progress = progress;
+    }
+    // *************************************************************************
+    // RecursiveTask methods
+
+    /**
+     * Analyze the files, forking sub-tasks if the range is large.
+     *
+     * @return a new instance containing the results (not null)
+     */
+    @Override
+    protected ScanResult compute() {
+        ScanResult result;
+        int numFiles = toIndex - fromIndex;
+        if (numFiles <= maxFilesPerTask) {
+            result = new ScanResult(shard);
+            AssetManager assetManager = workerManagers.get();
+            for (int i = fromIndex; i < toIndex; ++i) {
+                result.analyze(fileNames[i], assetManager);
+                progress.increment();
+            }
+
+        } else {
+            int midIndex = fromIndex + numFiles / 2;
+            ScanTask lowTask = new ScanTask(shard,
+                    fileNames, fromIndex, midIndex, workerManagers, progress);
+            ScanTask highTask = new ScanTask(shard,
+                    fileNames, midIndex, toIndex, workerManagers, progress);
+            lowTask.fork();
+            result = highTask.compute();
+            result.merge(lowTask.join());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Immutable snapshot of the lists contributed by a single asset root: the
+ * geometries, animation names, and keywords, plus the keyword indices and
+ * counterpart tables that relate them. Modifying a shard creates a new
+ * snapshot, leaving any that readers still hold unaffected.
+ * <p>
+ * A snapshot read from a summary file decodes each section on first access.
+ * Decoding (like building a counterpart table) is deterministic, so racing
+ * threads may duplicate the work but never see different results, and
+ * accessors never block.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class ShardSnapshot {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ShardSnapshot.class.getName());
+    /**
+     * snapshot of a shard that lists nothing
+     */
+    final static ShardSnapshot empty
+            = new ShardSnapshot(null, new Object[SummaryView.numSections]);
+    // *************************************************************************
+    // fields
+
+    /**
+     * decoded or derived contents of each section, indexed by section index
+     * (each element null until first access)
+     */
+    final private AtomicReferenceArray<Object> sections;
+    /**
+     * summary from which missing sections are decoded, or null if
+     * they're derived instead
+     */
+    final private SummaryView summary;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a snapshot whose sections will be decoded from the specified
+     * summary on first access.
+     *
+     * @param summary the validated summary (not null, alias created)
+     */
+    ShardSnapshot(SummaryView summary) {
+        this(summary, new Object[SummaryView.numSections]);
+        assert summary != null;
+    }
+
+    /**
+     * Instantiate a snapshot with the specified sections.
+     *
+     * @param summary the summary from which to decode missing sections, or
+     * null to derive them (alias created)
+     * @param values the contents of each section, indexed by section index
+     * (not null, unaffected)
+     */
+    private ShardSnapshot(SummaryView summary, Object[] values) {
+        assert values.length == SummaryView.numSections : values.length;
+
+        this.summary = summary;
+        this.sections = new AtomicReferenceArray<>(values);
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Access the table of gender counterparts for the geometry assets of the
+     * specified body part, decoding or building it if necessary.
+     *
+     * @param part (not null)
+     * @return the table (not null)
+     */
+    CounterpartTable counterparts(BodyPart part) {
+        int section = SummaryView.counterpartSection(part);
+        CounterpartTable result = (CounterpartTable) sections.get(section);
+        if (result == null) {
+            if (summary == null) {
+                FrontCodedDictionary female = knownGeometries(part, "f");
+                FrontCodedDictionary male = knownGeometries(part, "m");
+                result = CounterpartTable.build(female, male);
+            } else {
+                try {
+                    result = summary.counterparts(section);
+                } catch (IOException exception) {
+                    throw new RuntimeException(exception);
+                }
+            }
+            result = (CounterpartTable) memoize(section, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the index of animations by keyword for the specified skeletal
+     * group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the index (not null)
+     */
+    KeywordIndex keywordIndex(String groupName, String genderCode) {
+        int section = SummaryView.keywordIndexSection(groupName, genderCode);
+        KeywordIndex result = (KeywordIndex) sections.get(section);
+        if (result == null) {
+            if (summary == null) {
+                result = KeywordIndex.empty;
+            } else {
+                try {
+                    result = summary.keywordIndex(section);
+                } catch (IOException exception) {
+                    throw new RuntimeException(exception);
+                }
+            }
+            result = (KeywordIndex) memoize(section, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the dictionary of animation names for the specified skeletal
+     * group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the dictionary of names (not null)
+     */
+    FrontCodedDictionary knownAnimations(String groupName, String genderCode) {
+        int section = SummaryView.animationSection(groupName, genderCode);
+        FrontCodedDictionary result = names(section);
+
+        return result;
+    }
+
+    /**
+     * Access the dictionary of geometry assets for the specified body part and
+     * gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the dictionary of asset names (not null)
+     */
+    FrontCodedDictionary knownGeometries(BodyPart part, String genderCode) {
+        int section = SummaryView.geometrySection(part, genderCode);
+        FrontCodedDictionary result = names(section);
+
+        return result;
+    }
+
+    /**
+     * Access the dictionary of animation keywords for the specified skeletal
+     * group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the dictionary of keywords (not null)
+     */
+    FrontCodedDictionary knownKeywords(String groupName, String genderCode) {
+        int section = SummaryView.keywordSection(groupName, genderCode);
+        FrontCodedDictionary result = names(section);
+
+        return result;
+    }
+
+    /**
+     * Create a snapshot that differs from this one only in the animation
+     * names, keywords, and keyword index for the specified skeletal group and
+     * gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @param animations the new animation names (not null, alias created)
+     * @param keywords the new keywords (not null, alias created)
+     * @param index the index that relates them (not null, alias created)
+     * @return a new snapshot
+     */
+    ShardSnapshot withAnimations(String groupName, String genderCode,
+            FrontCodedDictionary animations, FrontCodedDictionary keywords,
+            KeywordIndex index) {
+        Object[] values = resolveAll();
+        values[SummaryView.animationSection(groupName, genderCode)]
+                = animations;
+        values[SummaryView.keywordSection(groupName, genderCode)]
+                = keywords;
+        values[SummaryView.keywordIndexSection(groupName, genderCode)]
+                = index;
+        ShardSnapshot result = new ShardSnapshot(null, values);
+
+        return result;
+    }
+
+    /**
+     * Create a snapshot that differs from this one only in the geometry assets
+     * for the specified body part and gender (and hence in the part's
+     * counterpart table, which is rebuilt on first access).
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @param names the new asset names (not null, alias created)
+     * @return a new snapshot
+     */
+    ShardSnapshot withGeometries(
+            BodyPart part, String genderCode, FrontCodedDictionary names) {
+        Object[] values = resolveAll();
+        values[SummaryView.geometrySection(part, genderCode)] = names;
+        values[SummaryView.counterpartSection(part)] = null;
+        ShardSnapshot result = new ShardSnapshot(null, values);
+
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Record the contents of the indexed section, unless another thread has
+     * already recorded them.
+     *
+     * @param section the index of the section
+     * @param value the contents to record (not null)
+     * @return the recorded contents (not null)
+     */
+    private Object memoize(int section, Object value) {
+        assert value != null;
+
+        Object result = value;
+        if (!sections.compareAndSet(section, null, value)) {
+            result = sections.get(section);
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the indexed name-list section, decoding it if necessary.
+     *
+     * @param section the index of the section
+     * @return the dictionary of names (not null)
+     */
+    private FrontCodedDictionary names(int section) {
+        FrontCodedDictionary result
+                = (FrontCodedDictionary) sections.get(section);
+        if (result == null) {
+            if (summary == null) {
+                result = FrontCodedDictionary.empty;
+            } else {
+                try {
+                    result = summary.names(section);
+                } catch (IOException exception) {
+                    throw new RuntimeException(exception);
+                }
+            }
+            result = (FrontCodedDictionary) memoize(section, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Copy the contents of every section, decoding any that haven't been
+     * decoded yet, so a derived snapshot won't need the summary. Counterpart
+     * tables that would be derived are left for the derived snapshot to build
+     * on demand.
+     *
+     * @return a new array, indexed by section index
+     */
+    private Object[] resolveAll() {
+        Object[] result = new Object[SummaryView.numSections];
+        for (BodyPart part : BodyPart.values()) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                int section = SummaryView.geometrySection(part, genderCode);
+                result[section] = names(section);
+            }
+            int section = SummaryView.counterpartSection(part);
+            if (summary == null) {
+                result[section] = sections.get(section);
+            } else {
+                result[section] = counterparts(part);
+            }
+        }
+
+        for (String groupName : RyzomUtil.groupNameArray) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                int section
+                        = SummaryView.animationSection(groupName, genderCode);
+                result[section] = names(section);
+
+                section = SummaryView.keywordSection(groupName, genderCode);
+                result[section] = names(section);
+
+                section = SummaryView.keywordIndexSection(
+                        groupName, genderCode);
+                result[section] = keywordIndex(groupName, genderCode);
+            }
+        }
+
+        return result;
+    }
+}
@@ -26,13 +26,6 @@
  */
 package ryzomdemos;
 
-import com.jme3.asset.AssetManager;
-import com.jme3.asset.DesktopAssetManager;
-import com.jme3.asset.plugins.ClasspathLocator;
-import com.jme3.asset.plugins.FileLocator;
-import com.jme3.export.binary.BinaryLoader;
-import com.jme3.material.plugins.J3MLoader;
-import com.jme3.texture.plugins.AWTLoader;
 import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.Set;
@@ -57,10 +50,6 @@ public class Statistics {
     // *************************************************************************
     // fields
 
-    /**
-     * locate, load, and cache assets
-     */
-    final private static AssetManager assetManager = new DesktopAssetManager();
     /**
      *
      */
@@ -74,18 +63,9 @@ public class Statistics {
      * @param ignored array of command-line arguments (not null)
      */
     public static void main(String[] ignored) {
-        assetManager.registerLoader(AWTLoader.class, "png");
-        assetManager.registerLoader(BinaryLoader.class, "j3o");
-        assetManager.registerLoader(J3MLoader.class, "j3md");
-
-        assetManager.registerLocator(RyzomUtil.assetRoot, FileLocator.class);
-        assetManager.registerLocator(null, ClasspathLocator.class);
-
-        boolean success = RyzomUtil.readMaps();
-        if (!success) {
-            RyzomUtil.preloadAssets(assetManager);
-            RyzomUtil.writeMaps();
-        }
+        int numWorkers = Runtime.getRuntime().availableProcessors();
+        ScanListener listener = new ProgressPrinter();
+        RyzomUtil.loadMaps(numWorkers, listener);
 
         out = System.out;
         out.println();
@@ -97,9 +77,8 @@ public class Statistics {
             String genderName = genderCode.equals("f") ? "females" : "males";
             out.printf("For %s there are:%n", genderName);
             for (BodyPart part : BodyPart.values()) {
-                String[] geometryNames
-                        = RyzomUtil.knownGeometries(part, genderCode);
-                int numGeometries = geometryNames.length;
+                int numGeometries
+                        = RyzomUtil.knownGeometries(part, genderCode).size();
                 out.printf("%4d %s geometries assets%n", numGeometries, part);
                 numCombosForGender *= numGeometries + 1; // +1 for no geometry
             }
@@ -110,6 +89,27 @@ public class Statistics {
         out.printf("... for a total of %d (%e) character bodies.%n%n",
                 totalCombos, (float) totalCombos);
 
+        // Count geometry assets by race and find the largest families.
+        int[] range = new int[2];
+        for (String genderCode : RyzomUtil.genderCodeArray) {
+            String genderName = genderCode.equals("f") ? "females" : "males";
+            out.printf("By race, the geometries assets for %s are:%n",
+                    genderName);
+            for (String raceCode : AssetNameParser.raceCodes) {
+                int numGeometries = 0;
+                for (BodyPart part : BodyPart.values()) {
+                    RyzomUtil.geometryPrefixRange(
+                            part, genderCode, raceCode + "_", range);
+                    numGeometries += range[1] - range[0];
+                }
+                out.printf("%5d %s%n", numGeometries, raceCode);
+            }
+            for (BodyPart part : BodyPart.values()) {
+                reportLargestFamily(part, genderCode);
+            }
+            out.println();
+        }
+
         // Output statistics on animation names and animation keywords.
         Set<String> allAnimationNames = new TreeSet<>();
         Set<String> allAnimationKeywords = new TreeSet<>();
@@ -117,10 +117,10 @@ public class Statistics {
             out.printf("The %s group provides:%n", groupName);
 
             for (String genderCode : RyzomUtil.genderCodeArray) {
-                String[] keywordArray
-                        = RyzomUtil.knownKeywords(groupName, genderCode);
-                String[] nameArray
-                        = RyzomUtil.knownAnimations(groupName, genderCode);
+                String[] keywordArray = RyzomUtil
+                        .knownKeywords(groupName, genderCode).toArray();
+                String[] nameArray = RyzomUtil
+                        .knownAnimations(groupName, genderCode).toArray();
 
                 String genderName
                         = genderCode.equals("f") ? "females" : "males";
@@ -138,10 +138,10 @@ public class Statistics {
         // Count how many animation keywords match each animation name.
         for (String groupName : RyzomUtil.groupNameArray) {
             for (String genderCode : RyzomUtil.genderCodeArray) {
-                String[] keywordArray
-                        = RyzomUtil.knownKeywords(groupName, genderCode);
-                String[] nameArray
-                        = RyzomUtil.knownAnimations(groupName, genderCode);
+                String[] keywordArray = RyzomUtil
+                        .knownKeywords(groupName, genderCode).toArray();
+                String[] nameArray = RyzomUtil
+                        .knownAnimations(groupName, genderCode).toArray();
 
                 out.printf("For the %d %s_ho%s animations:%n",
                         nameArray.length, groupName, genderCode);
@@ -153,6 +153,31 @@ public class Statistics {
     // *************************************************************************
     // private methods
 
+    /**
+     * Report the largest family of geometry assets for the specified body
+     * part and gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     */
+    private static void reportLargestFamily(BodyPart part, String genderCode) {
+        GeometryIndex index = RyzomUtil.geometryIndex(part, genderCode);
+        String largestFamily = null;
+        int largestSize = 0;
+        for (String family : index.families()) {
+            int size = index.inFamily(family).length;
+            if (size > largestSize) {
+                largestFamily = family;
+                largestSize = size;
+            }
+        }
+
+        if (largestFamily != null) {
+            out.printf(" The largest %s family is %s, with %d assets.%n",
+                    part, largestFamily, largestSize);
+        }
+    }
+
     private static void reportNameStatistics(
             String[] keywordArray, String[] nameArray) {
         String mostMatchedName = null;
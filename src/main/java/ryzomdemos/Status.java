@@ -27,8 +27,6 @@
 package ryzomdemos;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.logging.Logger;
@@ -67,13 +65,13 @@ class Status {
      */
     private int selectedField = 0;
     /**
-     * name of the Animation to play
+     * ID of the Animation to play
      */
-    private String animation = "ca_hom_co_course";
+    private int animationId = AssetCatalog.animationId("ca_hom_co_course");
     /**
-     * animation keyword
+     * ID of the animation keyword
      */
-    private String keyword = "course";
+    private int keywordId = AssetCatalog.keywordId("course");
     // *************************************************************************
     // constructors
 
@@ -142,13 +140,23 @@ class Status {
         }
     }
 
+    /**
+     * Read the ID of the animation.
+     *
+     * @return the animation ID (&ge;0)
+     */
+    int animationId() {
+        return animationId;
+    }
+
     /**
      * Read the name of the animation.
      *
      * @return the animation name (not null)
      */
     String animationName() {
-        return animation;
+        String result = AssetCatalog.animationName(animationId);
+        return result;
     }
 
     /**
@@ -163,12 +171,50 @@ class Status {
         visibilityFlags.putAll(other.visibilityFlags);
 
         selectedField = other.selectedField();
-        animation = other.animationName();
-        keyword = other.keyword();
+        animationId = other.animationId;
+        keywordId = other.keywordId;
 
         assert equals(other);
     }
 
+    /**
+     * Fall back gracefully after exported assets have been removed: omit body
+     * parts whose geometry assets no longer exist and, if the animation asset
+     * for the skeletal group is gone, switch to the other group. The keyword
+     * and animation are then revalidated against the catalog.
+     *
+     * @return true if anything was altered, otherwise false
+     */
+    boolean dropMissingAssets() {
+        boolean result = false;
+        for (BodyPart part : BodyPart.values()) {
+            String assetName = character.geometryName(part);
+            if (assetName != null && !RyzomUtil.assetExists(assetName)) {
+                character.setGeometry(part, null);
+                result = true;
+            }
+        }
+
+        if (!RyzomUtil.assetExists(character.animationAssetName())) {
+            character.toggleGroup();
+            if (RyzomUtil.assetExists(character.animationAssetName())) {
+                result = true;
+            } else { // neither group has animations, so leave it alone
+                character.toggleGroup();
+            }
+        }
+
+        int oldKeywordId = keywordId;
+        int oldAnimationId = animationId;
+        updateKeyword();
+        updateAnimation();
+        if (keywordId != oldKeywordId || animationId != oldAnimationId) {
+            result = true;
+        }
+
+        return result;
+    }
+
     /**
      * Access the Character.
      *
@@ -195,7 +241,17 @@ class Status {
      * @return the keyword (not null)
      */
     String keyword() {
-        return keyword;
+        String result = AssetCatalog.keywordName(keywordId);
+        return result;
+    }
+
+    /**
+     * Read the ID of the animation keyword.
+     *
+     * @return the keyword ID (&ge;0)
+     */
+    int keywordId() {
+        return keywordId;
     }
 
     /**
@@ -207,27 +263,13 @@ class Status {
     List<String> knownAnimations() {
         String groupName = character.groupName();
         String genderCode = character.genderCode();
-        String[] allNames = RyzomUtil.knownAnimations(groupName, genderCode);
-
-        String substring;
-        if (keyword == null) {
-            substring = "";
-        } else {
-            substring = "_" + keyword;
-        }
-
-        int count = 0;
-        for (String name : allNames) {
-            if (name.contains(substring)) {
-                ++count;
-            }
-        }
-
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int count = catalog.numMatches(groupName, genderCode, keywordId);
         List<String> result = new ArrayList<>(count);
-        for (String name : allNames) {
-            if (name.contains(substring)) {
-                result.add(name);
-            }
+        for (int position = 0; position < count; ++position) {
+            int id = catalog.matchAt(
+                    groupName, genderCode, keywordId, position);
+            result.add(AssetCatalog.animationName(id));
         }
 
         assert result != null;
@@ -236,15 +278,58 @@ class Status {
     }
 
     /**
-     * Access the array of known keywords for the configured gender and skeletal
-     * group.
+     * Access the dictionary of known keywords for the configured gender and
+     * skeletal group.
      *
-     * @return the pre-existing array of animation keywords (not null)
+     * @return the pre-existing dictionary of animation keywords (not null)
      */
-    String[] knownKeywords() {
+    FrontCodedDictionary knownKeywords() {
         String groupName = character.groupName();
         String genderCode = character.genderCode();
-        String[] result = RyzomUtil.knownKeywords(groupName, genderCode);
+        FrontCodedDictionary result
+                = RyzomUtil.catalog().knownKeywords(groupName, genderCode);
+
+        return result;
+    }
+
+    /**
+     * Predict which assets are likely to be needed next, based on the field
+     * selected for editing: the geometry assets 1 and 7 positions away from the
+     * selected body part, or the animation asset of the other skeletal group
+     * or gender. (Animations and keywords don't need any additional assets.)
+     *
+     * @return a new list of asset names (without ".j3o"), most likely first
+     */
+    List<String> predictAssets() {
+        List<String> result = new ArrayList<>(4);
+        switch (selectedField) {
+            case StatusAppState.animationStatusLine:
+            case StatusAppState.keywordStatusLine:
+                break;
+
+            case StatusAppState.genderStatusLine:
+            case StatusAppState.groupStatusLine:
+                Character other = new Character();
+                other.copy(character);
+                if (selectedField == StatusAppState.genderStatusLine) {
+                    other.toggleGender();
+                } else {
+                    other.toggleGroup();
+                }
+                result.add(other.animationAssetName());
+                break;
+
+            default:
+                int ordinal
+                        = selectedField - StatusAppState.firstPartStatusLine;
+                BodyPart part = BodyPart.values()[ordinal];
+                for (int amount : new int[]{+1, -1, +7, -7}) {
+                    String assetName = character.neighborGeometry(part, amount);
+                    if (assetName != null && !result.contains(assetName)) {
+                        result.add(assetName);
+                    }
+                }
+        }
 
         return result;
     }
@@ -324,8 +409,8 @@ class Status {
             Status other = (Status) otherObject;
             result = other.getCharacter().equals(character)
                     && other.selectedField() == selectedField
-                    && other.animationName().equals(animation)
-                    && other.keyword().equals(keyword)
+                    && other.animationId == animationId
+                    && other.keywordId == keywordId
                     && other.visibilityFlags.equals(visibilityFlags);
 
         } else {
@@ -338,38 +423,50 @@ class Status {
     // private methods
 
     /**
-     * Advance the animation selection by the specified amount.
+     * Advance the animation selection by the specified amount. If no matching
+     * animations are known yet, the selection is left unchanged.
      *
      * @param amount the number of animations to advance
      */
     private void advanceAnimation(int amount) {
-        List<String> nameList = knownAnimations();
-        int index = Collections.binarySearch(nameList, animation);
-        if (index < 0) {
-            animation = nameList.get(0);
+        String groupName = character.groupName();
+        String genderCode = character.genderCode();
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int count = catalog.numMatches(groupName, genderCode, keywordId);
+        int position = catalog.matchPosition(
+                groupName, genderCode, keywordId, animationId);
+        if (count == 0) {
+            return;
+        } else if (position < 0) {
+            position = 0;
         } else {
-            assert nameList.get(index).equals(animation);
-            index = MyMath.modulo(index + amount, nameList.size());
-            animation = nameList.get(index);
+            position = MyMath.modulo(position + amount, count);
         }
+        animationId
+                = catalog.matchAt(groupName, genderCode, keywordId, position);
     }
 
     /**
      * Advance the keyword selection by the specified amount and update the
-     * animation selection accordingly.
+     * animation selection accordingly. If no keywords are known yet, the
+     * selection is left unchanged.
      *
      * @param amount the number of keywords to advance
      */
     private void advanceKeyword(int amount) {
-        String[] keywordArray = knownKeywords();
-        int index = Arrays.binarySearch(keywordArray, keyword);
-        if (index < 0) {
-            keyword = keywordArray[0];
+        String groupName = character.groupName();
+        String genderCode = character.genderCode();
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int count = catalog.numKeywords(groupName, genderCode);
+        int rank = catalog.keywordRank(groupName, genderCode, keywordId);
+        if (count == 0) {
+            return;
+        } else if (rank < 0) {
+            rank = 0;
         } else {
-            assert keywordArray[index].equals(keyword);
-            index = MyMath.modulo(index + amount, keywordArray.length);
-            keyword = keywordArray[index];
+            rank = MyMath.modulo(rank + amount, count);
         }
+        keywordId = catalog.keywordAt(groupName, genderCode, rank);
 
         updateAnimation();
     }
@@ -379,8 +476,15 @@ class Status {
      * group, and animation keyword.
      */
     private void randomizeAnimation() {
-        List<String> known = knownAnimations();
-        animation = (String) RyzomUtil.generator.pick(known);
+        String groupName = character.groupName();
+        String genderCode = character.genderCode();
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int count = catalog.numMatches(groupName, genderCode, keywordId);
+        if (count > 0) {
+            int position = RyzomUtil.generator.nextInt(count);
+            animationId = catalog.matchAt(
+                    groupName, genderCode, keywordId, position);
+        }
     }
 
     /**
@@ -388,25 +492,40 @@ class Status {
      * skeletal group.
      */
     private void randomizeKeyword() {
-        String[] known = knownKeywords();
-        keyword = (String) RyzomUtil.generator.pick(known);
-        updateAnimation();
+        String groupName = character.groupName();
+        String genderCode = character.genderCode();
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int count = catalog.numKeywords(groupName, genderCode);
+        if (count > 0) {
+            int rank = RyzomUtil.generator.nextInt(count);
+            keywordId = catalog.keywordAt(groupName, genderCode, rank);
+            updateAnimation();
+        }
     }
 
     /**
      * Update the selected animation to ensure it exists for the selected group
-     * and gender and also matches the selected keyword, if any.
-     *
-     * @return the updated name (not null)
+     * and gender and also matches the selected keyword.
      */
     private void updateAnimation() {
-        List<String> nameList = knownAnimations();
-        if (Collections.binarySearch(nameList, animation) < 0) {
-            String adjName = character.adjustForGender(animation);
-            if (Collections.binarySearch(nameList, adjName) >= 0) {
-                animation = adjName;
+        String groupName = character.groupName();
+        String genderCode = character.genderCode();
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int count = catalog.numMatches(groupName, genderCode, keywordId);
+        if (count == 0) { // animations not cataloged yet
+            String adjName = character.adjustForGender(animationName());
+            animationId = AssetCatalog.animationId(adjName);
+
+        } else if (catalog.matchPosition(
+                groupName, genderCode, keywordId, animationId) < 0) {
+            String adjName = character.adjustForGender(animationName());
+            int adjId = AssetCatalog.animationId(adjName);
+            if (catalog.matchPosition(
+                    groupName, genderCode, keywordId, adjId) >= 0) {
+                animationId = adjId;
             } else {
-                animation = nameList.get(0);
+                animationId
+                        = catalog.matchAt(groupName, genderCode, keywordId, 0);
             }
         }
     }
@@ -416,9 +535,12 @@ class Status {
      * selected group and gender.
      */
     private void updateKeyword() {
-        String[] keywordArray = knownKeywords();
-        if (Arrays.binarySearch(keywordArray, keyword) < 0) {
-            keyword = keywordArray[0];
+        String groupName = character.groupName();
+        String genderCode = character.genderCode();
+        AssetCatalog catalog = RyzomUtil.catalog();
+        if (catalog.numKeywords(groupName, genderCode) > 0
+                && catalog.keywordRank(groupName, genderCode, keywordId) < 0) {
+            keywordId = catalog.keywordAt(groupName, genderCode, 0);
         }
     }
 }
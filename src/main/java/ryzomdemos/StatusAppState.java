@@ -33,10 +33,11 @@ import com.jme3.font.BitmapFont;
 import com.jme3.font.BitmapText;
 import com.jme3.math.ColorRGBA;
 import com.jme3.scene.Node;
-import com.jme3.scene.Spatial;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import jme3utilities.SimpleAppState;
 
@@ -44,10 +45,29 @@ import jme3utilities.SimpleAppState;
  * AppState to display the Status of the BuildCharacter application in an
  * overlay. The overlay consists of 11 status lines, one of which is selected
  * for editing. The overlay is located in the upper-left portion of the display.
+ * <p>
+ * The asset catalog is loaded on a background thread. Assets become selectable
+ * as soon as they're discovered. Until loading completes, a progress message
+ * is displayed at the bottom of the display. Once it's loaded and the first
+ * frame is on screen, any sections of the catalog that haven't been accessed
+ * yet are warmed up on another background thread.
+ * <p>
+ * After loading, the export directories are watched, so files that are
+ * re-exported while the application runs are reloaded. Changed models are
+ * evicted from the asset cache, and if configured assets have disappeared,
+ * the configuration falls back to assets that still exist.
+ * <p>
+ * Edits are coalesced: all the edits made during a frame are applied in one
+ * update, and the character is rebuilt only after edits have settled for a
+ * configurable delay, though the status lines are updated immediately.
+ * Characters are assembled on a background thread. The previous character
+ * remains in the scene until its replacement is ready.
  *
  * @author Stephen Gold sgold@sonic.net
  */
-public class StatusAppState extends SimpleAppState {
+public class StatusAppState
+        extends SimpleAppState
+        implements ReloadListener, ScanListener {
     // *************************************************************************
     // constants and loggers
 
@@ -55,6 +75,11 @@ public class StatusAppState extends SimpleAppState {
      * index of the status line for the name of the animation that's playing
      */
     final static int animationStatusLine = 2;
+    /**
+     * delay between the last edit and the rebuild of the character when none
+     * is configured (in milliseconds)
+     */
+    final private static long defaultRebuildDelay = 150L;
     /**
      * index of the status line for the first body part
      */
@@ -81,6 +106,10 @@ public class StatusAppState extends SimpleAppState {
      */
     final public static Logger logger
             = Logger.getLogger(StatusAppState.class.getName());
+    /**
+     * name of the system property that configures the rebuild delay
+     */
+    final private static String delayProperty = "ryzomdemos.rebuildDelay";
     // *************************************************************************
     // fields
 
@@ -89,10 +118,53 @@ public class StatusAppState extends SimpleAppState {
      * the top line)
      */
     final private BitmapText[] statusLines = new BitmapText[numStatusLines];
+    /**
+     * progress message displayed while the catalog is loading
+     */
+    private BitmapText progressText;
+    /**
+     * true once the asset catalog has been loaded, otherwise false
+     */
+    private boolean isCatalogLoaded = false;
+    /**
+     * true once the catalog warm-up has been started (or skipped), otherwise
+     * false
+     */
+    private boolean isWarmUpStarted = false;
+    /**
+     * true if the character has been edited but not yet rebuilt, otherwise
+     * false
+     */
+    private boolean isRebuildPending = false;
+    /**
+     * time from the last edit of the character until it gets rebuilt (in
+     * seconds, &ge;0)
+     */
+    private float rebuildDelay;
+    /**
+     * time remaining until the pending rebuild (in seconds)
+     */
+    private float rebuildTimer = 0f;
+    /**
+     * catalog revision reflected in the status lines, or -1 if none
+     */
+    private int displayedRevision = -1;
     /**
      * reference to the application instance
      */
     private BuildCharacter appInstance;
+    /**
+     * watcher for changes to the export directories, or null if not started
+     */
+    private ExportWatcher exportWatcher = null;
+    /**
+     * builder of character nodes, or null if not initialized
+     */
+    private CharacterAssembler assembler = null;
+    /**
+     * loader for assets likely to be needed soon, or null if not initialized
+     */
+    private AssetPrefetcher prefetcher = null;
     /**
      * actual application state, or null for unknown
      */
@@ -101,6 +173,14 @@ public class StatusAppState extends SimpleAppState {
      * configured application state, to be actualized during the next update()
      */
     final private Status config = new Status();
+    /**
+     * number of files analyzed so far by the catalog loader
+     */
+    private volatile int numAnalyzed = 0;
+    /**
+     * number of files to be analyzed by the catalog loader, or 0 if unknown
+     */
+    private volatile int numToAnalyze = 0;
     // *************************************************************************
     // constructors
 
@@ -109,46 +189,23 @@ public class StatusAppState extends SimpleAppState {
      */
     StatusAppState() {
         super(true);
+
+        long millis = Long.getLong(delayProperty, defaultRebuildDelay);
+        this.rebuildDelay = Math.max(0L, millis) / 1000f;
     }
     // *************************************************************************
     // new methods exposed
 
     /**
-     * Attach all configured body parts to the specified Node.
+     * Assemble the configured character (including a SkeletonControl, an
+     * AnimControl, and all configured body parts) on the render thread.
      *
-     * @param parentNode where to attach (not null)
+     * @return a new Node, not attached to any scene graph
      */
-    void attachBodyParts(Node parentNode) {
+    Node assembleCharacter() {
         Character character = config.getCharacter();
         character.adjustAssetsForGender();
-
-        // Load the selected body-part geometries and attach them to the parent.
-        for (BodyPart part : BodyPart.values()) {
-            if (character.includes(part)) {
-                ModelKey assetKey = character.makeGeometryAssetKey(part);
-                Spatial geometries = assetManager.loadAsset(assetKey);
-
-                String groupName = character.groupName();
-                if (groupName.equals("ge")) {
-                    geometries = geometries.getUserData("ryzom_alternate");
-                }
-                parentNode.attachChild(geometries);
-            }
-        }
-    }
-
-    /**
-     * Load the configured character node (including a SkeletonControl and an
-     * AnimControl but no geometries) and attach it to the specified Node.
-     *
-     * @param parentNode where to attach (not null)
-     * @return the new Node
-     */
-    Node attachCharacterNode(Node parentNode) {
-        Character character = config.getCharacter();
-        ModelKey assetKey = character.makeAnimationAssetKey();
-        Node result = (Node) assetManager.loadAsset(assetKey);
-        parentNode.attachChild(result);
+        Node result = assembler.assemble(character);
 
         return result;
     }
@@ -161,6 +218,18 @@ public class StatusAppState extends SimpleAppState {
     Status getConfig() {
         return config;
     }
+
+    /**
+     * Alter how long edits to the character must settle before it gets
+     * rebuilt. The status lines are updated immediately regardless.
+     *
+     * @param seconds the delay after the last edit (in seconds, &ge;0, default
+     * 0.15)
+     */
+    void setRebuildDelay(float seconds) {
+        assert seconds >= 0f : seconds;
+        this.rebuildDelay = seconds;
+    }
     // *************************************************************************
     // SimpleAppState methods
 
@@ -171,10 +240,20 @@ public class StatusAppState extends SimpleAppState {
     @Override
     public void cleanup() {
         super.cleanup();
-        // Remove the status lines from the guiNode.
+        // Remove the status lines and progress message from the guiNode.
         for (int i = 0; i < numStatusLines; ++i) {
             statusLines[i].removeFromParent();
         }
+        progressText.removeFromParent();
+
+        assembler.shutdown();
+        this.assembler = null;
+        prefetcher.shutdown();
+        this.prefetcher = null;
+        if (exportWatcher != null) {
+            exportWatcher.stop();
+            this.exportWatcher = null;
+        }
     }
 
     /**
@@ -191,11 +270,11 @@ public class StatusAppState extends SimpleAppState {
         BitmapFont guiFont
                 = assetManager.loadFont("Interface/Fonts/Default.fnt");
 
-        boolean success = RyzomUtil.readMaps();
-        if (!success) {
-            RyzomUtil.preloadAssets(assetManager);
-            RyzomUtil.writeMaps();
-        }
+        // Add the progress message to the guiNode.
+        this.progressText = new BitmapText(guiFont);
+        progressText.setText("Loading the asset catalog ...");
+        guiNode.attachChild(progressText);
+        positionProgressText(cam.getWidth(), cam.getHeight());
 
         // Add the status lines to the guiNode.
         for (int i = 0; i < numStatusLines; ++i) {
@@ -205,7 +284,26 @@ public class StatusAppState extends SimpleAppState {
             guiNode.attachChild(statusLines[i]);
         }
 
-        appInstance.updateCharacter();
+        this.assembler = new CharacterAssembler(assetManager);
+        this.prefetcher = new AssetPrefetcher(assetManager);
+        startCatalogLoader();
+        requestCharacter();
+    }
+
+    /**
+     * Callback invoked after rendering each frame. Once the catalog has been
+     * loaded, warm up the rest of it.
+     */
+    @Override
+    public void postRender() {
+        super.postRender();
+
+        if (isCatalogLoaded && !isWarmUpStarted) {
+            this.isWarmUpStarted = true;
+            if (RyzomUtil.isWarmUpEnabled()) {
+                startWarmUp();
+            }
+        }
     }
 
     /**
@@ -218,27 +316,55 @@ public class StatusAppState extends SimpleAppState {
     public void update(float tpf) {
         super.update(tpf);
 
-        if (actual != null && actual.equals(config)) {
+        if (!isCatalogLoaded) {
+            updateProgressText();
+        }
+        if (isRebuildPending) {
+            this.rebuildTimer -= tpf;
+            if (rebuildTimer <= 0f) { // edits have settled
+                requestCharacter();
+            }
+        }
+        CharacterAssembly assembly = assembler.poll();
+        if (assembly != null) {
+            if (appInstance.installCharacter(assembly)) {
+                this.displayedRevision = -1; // to refresh the status lines
+            } else { // the scene changed while the parts were being loaded
+                requestCharacter();
+            }
+        }
+        AssetCatalog catalog = RyzomUtil.catalog();
+        int revision = catalog.revision();
+        boolean catalogChanged = (revision != displayedRevision);
+        boolean configChanged = (actual == null || !actual.equals(config));
+        if (!catalogChanged && !configChanged) {
             return; // unchanged
         }
+        this.displayedRevision = revision;
 
-        updateCharacter();
+        updateCharacter(catalogChanged);
+        prefetchPredictedAssets();
         String animationName = config.animationName();
-        appInstance.setAnimation(animationName, 0f);
-        appInstance.updateFeatureVisibility();
+        if (configChanged) {
+            appInstance.setAnimation(animationName, 0f);
+            appInstance.updateFeatureVisibility();
+        }
 
-        List<String> nameList = config.knownAnimations();
-        int index = 1 + Collections.binarySearch(nameList, animationName);
-        int count = nameList.size();
+        Character character = config.getCharacter();
+        String groupName = character.groupName();
+        String genderCode = character.genderCode();
+        int keywordId = config.keywordId();
+        int index = 1 + catalog.matchPosition(
+                groupName, genderCode, keywordId, config.animationId());
+        int count = catalog.numMatches(groupName, genderCode, keywordId);
         float duration = appInstance.animDuration();
         String text = String.format("Animation #%d of %d: %s (%.2fs)",
                 index, count, animationName, duration);
         updateStatusLine(animationStatusLine, text);
 
-        String[] keywordArray = config.knownKeywords();
         String keyword = config.keyword();
-        index = 1 + Arrays.binarySearch(keywordArray, keyword);
-        count = keywordArray.length;
+        index = 1 + catalog.keywordRank(groupName, genderCode, keywordId);
+        count = catalog.numKeywords(groupName, genderCode);
         text = String.format("Animation Keyword #%d of %d: %s",
                 index, count, keyword);
         updateStatusLine(keywordStatusLine, text);
@@ -262,16 +388,207 @@ public class StatusAppState extends SimpleAppState {
                 statusLines[i].setLocalTranslation(0f, y, 0f);
             }
         }
+        if (progressText != null) {
+            positionProgressText(newWidth, newHeight);
+        }
+    }
+    // *************************************************************************
+    // ReloadListener methods
+
+    /**
+     * Callback invoked (on the watcher thread) after exported files have been
+     * reloaded into the catalog.
+     *
+     * @param fileNames the filenames of the files that were added, modified,
+     * or removed (not null, not empty, unaffected)
+     */
+    @Override
+    public void onReload(Collection<String> fileNames) {
+        final String[] fileArray = new String[fileNames.size()];
+        fileNames.toArray(fileArray);
+        appInstance.enqueue(new Runnable() {
+            @Override
+            public void run() {
+                reloadAssets(fileArray);
+            }
+        });
+    }
+    // *************************************************************************
+    // ScanListener methods
+
+    /**
+     * Callback invoked (on a worker thread) each time the catalog loader has
+     * analyzed a file.
+     *
+     * @param numAnalyzed the number of files analyzed so far (&ge;0)
+     * @param numFiles the number of files to be analyzed (&ge;numAnalyzed)
+     */
+    @Override
+    public void onProgress(int numAnalyzed, int numFiles) {
+        this.numToAnalyze = numFiles;
+        this.numAnalyzed = numAnalyzed;
     }
     // *************************************************************************
     // private methods
 
+    /**
+     * Remove the progress message after the asset catalog has been loaded.
+     * Invoked on the render thread.
+     */
+    private void onCatalogLoaded() {
+        progressText.removeFromParent();
+        this.isCatalogLoaded = true;
+
+        if (RyzomUtil.isHotReloadEnabled() && isInitialized()) {
+            this.exportWatcher = new ExportWatcher(this);
+            exportWatcher.start();
+        }
+    }
+
+    /**
+     * Center the progress message along the bottom edge of a ViewPort of the
+     * specified size.
+     *
+     * @param width the width of the ViewPort (in pixels, &gt;0)
+     * @param height the height of the ViewPort (in pixels, &gt;0)
+     */
+    private void positionProgressText(int width, int height) {
+        float x = (width - progressText.getLineWidth()) / 2f;
+        float y = progressText.getLineHeight();
+        progressText.setLocalTranslation(Math.max(x, 0f), y, 0f);
+    }
+
+    /**
+     * Prefetch the assets that are likely to be needed next, in the background.
+     */
+    private void prefetchPredictedAssets() {
+        List<String> assetNames = config.predictAssets();
+        List<String> assetPaths = new ArrayList<>(assetNames.size());
+        for (String assetName : assetNames) {
+            assetPaths.add(RyzomUtil.assetPathPrefix + assetName + ".j3o");
+        }
+        prefetcher.prefetch(assetPaths);
+    }
+
+    /**
+     * Evict reloaded models from the asset cache and rebuild the character if
+     * it uses any of them (or if it used assets that no longer exist). Invoked
+     * on the render thread.
+     *
+     * @param fileNames the filenames of the files that were added, modified,
+     * or removed (not null, unaffected)
+     */
+    private void reloadAssets(String[] fileNames) {
+        Character character = config.getCharacter();
+        boolean isInUse = false;
+        for (String fileName : fileNames) {
+            if (fileName.endsWith(".j3o")) {
+                String assetPath = RyzomUtil.assetPathPrefix + fileName;
+                assetManager.deleteFromCache(new ModelKey(assetPath));
+                prefetcher.evict(assetPath);
+
+                String assetName = fileName.replace(".j3o", "");
+                assembler.evictTemplate(assetName);
+                isInUse |= character.usesAsset(assetName);
+            }
+        }
+
+        if (config.dropMissingAssets()) {
+            logger.log(Level.INFO, "dropped assets that no longer exist");
+        }
+        if (isInUse) {
+            // Force a full rebuild, even if the configuration hasn't changed.
+            appInstance.invalidateCharacter();
+            this.actual = null;
+        }
+    }
+
+    /**
+     * Request a background assembly of the configured character. The current
+     * character remains in the scene until the new one is installed.
+     */
+    private void requestCharacter() {
+        this.isRebuildPending = false;
+        Character character = config.getCharacter();
+        character.adjustAssetsForGender();
+        assembler.request(character, appInstance.loadedCharacter());
+    }
+
+    /**
+     * Rebuild the character once edits have settled: each edit restarts the
+     * delay, so browsing rapidly causes a single rebuild.
+     */
+    private void scheduleRebuild() {
+        if (rebuildDelay > 0f) {
+            this.isRebuildPending = true;
+            this.rebuildTimer = rebuildDelay;
+        } else {
+            requestCharacter();
+        }
+    }
+
+    /**
+     * Load the asset catalog on a background thread, then remove the progress
+     * message on the render thread.
+     */
+    private void startCatalogLoader() {
+        Runnable loader = new Runnable() {
+            @Override
+            public void run() {
+                int numWorkers = Runtime.getRuntime().availableProcessors();
+                try {
+                    RyzomUtil.loadMaps(numWorkers, StatusAppState.this);
+                } catch (final RuntimeException exception) {
+                    // Re-throw the exception on the render thread.
+                    appInstance.enqueue(new Runnable() {
+                        @Override
+                        public void run() {
+                            throw exception;
+                        }
+                    });
+                    return;
+                }
+
+                appInstance.enqueue(new Runnable() {
+                    @Override
+                    public void run() {
+                        onCatalogLoaded();
+                    }
+                });
+            }
+        };
+
+        Thread thread = new Thread(loader, "catalog loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Warm up the catalog on a low-priority background thread.
+     */
+    private void startWarmUp() {
+        Runnable warmer = new Runnable() {
+            @Override
+            public void run() {
+                RyzomUtil.warmUpCatalog();
+            }
+        };
+
+        Thread thread = new Thread(warmer, "catalog warm-up");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
     /**
      * Update everything that depends on the configured character body.
+     *
+     * @param catalogChanged true if the catalog has changed since the status
+     * lines were last updated, otherwise false
      */
-    private void updateCharacter() {
+    private void updateCharacter(boolean catalogChanged) {
         Character character = config.getCharacter();
-        if (actual != null
+        if (!catalogChanged && actual != null
                 && actual.getCharacter().equals(character)
                 && actual.selectedField() == config.selectedField()) {
             return; // unchanged
@@ -291,14 +608,15 @@ public class StatusAppState extends SimpleAppState {
         updateStatusLine(groupStatusLine, text);
 
         String genderCode = character.genderCode();
+        AssetCatalog catalog = RyzomUtil.catalog();
         for (BodyPart part : BodyPart.values()) {
-            String[] known = RyzomUtil.knownGeometries(part, genderCode);
             String assetName = character.geometryName(part);
             if (assetName == null) {
                 text = String.format("%s: <none>", part);
             } else {
-                index = 1 + Arrays.binarySearch(known, assetName);
-                count = known.length;
+                int id = AssetCatalog.geometryId(part, assetName);
+                index = 1 + catalog.geometryRank(part, genderCode, id);
+                count = catalog.numGeometries(part, genderCode);
                 text = String.format("%s #%d of %d: %s",
                         part, index, count, assetName);
             }
@@ -306,8 +624,27 @@ public class StatusAppState extends SimpleAppState {
         }
 
         if (actual == null || !actual.getCharacter().equals(character)) {
-            appInstance.updateCharacter();
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Update the progress message while the catalog is loading.
+     */
+    private void updateProgressText() {
+        int numFiles = numToAnalyze;
+        String text;
+        if (numFiles == 0) {
+            text = "Loading the asset catalog ...";
+        } else {
+            int count = numAnalyzed;
+            float percentage = (100f * count) / numFiles;
+            text = String.format(
+                    "Analyzing exported assets: %d of %d files (%.0f%%)",
+                    count, numFiles, percentage);
         }
+        progressText.setText(text);
+        positionProgressText(cam.getWidth(), cam.getHeight());
     }
 
     /**
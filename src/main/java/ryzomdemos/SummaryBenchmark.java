@@ -0,0 +1,382 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import com.jme3.export.binary.ByteUtils;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Console application to compare summary-file persistence using unbuffered
+ * streams (one call per field, as in the version-1 format) with bulk I/O
+ * over a FileChannel (as in the current format). For each approach, it
+ * reports the number of I/O calls that reach the file and the mean latency.
+ * It also reports the mean latency of fingerprinting the export directory,
+ * which is paid on every warm start.
+ * <p>
+ * The stream path isn't the original code: the version-1 writer and reader
+ * were removed from RyzomUtil, so {@link #writeWithStream(java.io.File)}
+ * and {@link #readWithStream(java.io.File)} re-implement them here, field for
+ * field. The version-1 manifest is approximated using one zero-valued entry
+ * per geometry asset. The results depend on the export and the filesystem.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class SummaryBenchmark {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * number of timed repetitions of each measurement
+     */
+    final private static int numRepetitions = 50;
+    /**
+     * number of untimed repetitions before each measurement
+     */
+    final private static int numWarmups = 10;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(SummaryBenchmark.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of I/O calls during the most recent operation
+     */
+    private static long numCalls;
+    /**
+     * stream for the report
+     */
+    private static PrintStream console;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Main entry point for the SummaryBenchmark application.
+     *
+     * @param ignored array of command-line arguments (not null)
+     * @throws IOException if a temporary file can't be written or read
+     */
+    public static void main(String[] ignored) throws IOException {
+        int numWorkers = Runtime.getRuntime().availableProcessors();
+        ScanListener listener = new ProgressPrinter();
+        RyzomUtil.loadMaps(numWorkers, listener);
+
+        console = System.out;
+        console.println();
+        console.printf("Mean of %d repetitions (after %d warm-ups):%n",
+                numRepetitions, numWarmups);
+
+        File streamFile = File.createTempFile("summary-stream", ".bin");
+        streamFile.deleteOnExit();
+        File bulkFile = File.createTempFile("summary-bulk", ".bin");
+        bulkFile.deleteOnExit();
+
+        for (int operation = 0; operation < 5; ++operation) {
+            String description = null;
+            long totalNanos = 0L;
+            for (int rep = -numWarmups; rep < numRepetitions; ++rep) {
+                numCalls = 0L;
+                long startNanos = System.nanoTime();
+                switch (operation) {
+                    case 0:
+                        description = "stream write";
+                        writeWithStream(streamFile);
+                        break;
+                    case 1:
+                        description = "bulk write";
+                        writeWithChannel(bulkFile);
+                        break;
+                    case 2:
+                        description = "stream read";
+                        readWithStream(streamFile);
+                        break;
+                    case 3:
+                        description = "bulk read";
+                        readWithChannel(bulkFile);
+                        break;
+                    default:
+                        description = "fingerprint";
+                        fingerprintExportDirectory();
+                }
+                long elapsedNanos = System.nanoTime() - startNanos;
+                if (rep >= 0) {
+                    totalNanos += elapsedNanos;
+                }
+            }
+
+            double meanMillis = 1e-6 * totalNanos / numRepetitions;
+            if (operation == 4) {
+                console.printf("%14s: %7d files,     %8.3f ms%n",
+                        description, numCalls, meanMillis);
+            } else {
+                console.printf("%14s: %7d I/O calls, %8.3f ms (%d bytes)%n",
+                        description, numCalls, meanMillis,
+                        (operation % 2 == 0 ? streamFile : bulkFile).length());
+            }
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Fingerprint the export directory of the highest-precedence shard, as
+     * done on every warm start.
+     */
+    private static void fingerprintExportDirectory() {
+        CatalogShard shard = RyzomUtil.shards().get(0);
+        String directoryPath = shard.assetRoot() + RyzomUtil.assetPathPrefix;
+        DirectoryFingerprint fingerprint
+                = DirectoryFingerprint.of(directoryPath);
+        numCalls = fingerprint.numFiles();
+    }
+
+    /**
+     * Decode every section of a summary, after reading it into a heap buffer
+     * with bulk reads over a FileChannel, as CatalogShard does.
+     *
+     * @param file the file to read (not null)
+     * @throws IOException if the file can't be read or is invalid
+     */
+    private static void readWithChannel(File file) throws IOException {
+        SummaryView summary;
+        try (FileChannel channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("truncated summary");
+                }
+                ++numCalls;
+            }
+            buffer.flip();
+            summary = new SummaryView(buffer);
+        }
+
+        for (BodyPart part : BodyPart.values()) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                int section = SummaryView.geometrySection(part, genderCode);
+                summary.names(section).toArray();
+            }
+        }
+        for (String groupName : RyzomUtil.groupNameArray) {
+            for (String genderCode : RyzomUtil.genderCodeArray) {
+                int section
+                        = SummaryView.animationSection(groupName, genderCode);
+                summary.names(section).toArray();
+                section = SummaryView.keywordSection(groupName, genderCode);
+                summary.names(section).toArray();
+            }
+        }
+        Map<String, ManifestEntry> manifest = new TreeMap<>();
+        summary.readManifest(manifest);
+    }
+
+    /**
+     * Decode every field of a version-1 summary, one field at a time, using
+     * an unbuffered stream.
+     *
+     * @param file the file to read (not null)
+     * @throws IOException if the file can't be read
+     */
+    private static void readWithStream(File file) throws IOException {
+        try (InputStream stream
+                = new FilterInputStream(new FileInputStream(file)) {
+            @Override
+            public int read() throws IOException {
+                ++numCalls;
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length)
+                    throws IOException {
+                ++numCalls;
+                return in.read(bytes, offset, length);
+            }
+        }) {
+            ByteUtils.readInt(stream);
+            ByteUtils.readLong(stream);
+            int numLists = RyzomUtil.genderCodeArray.length
+                    * (BodyPart.values().length
+                    + 2 * RyzomUtil.groupNameArray.length);
+            for (int i = 0; i < numLists; ++i) {
+                int length = ByteUtils.readInt(stream);
+                for (int j = 0; j < length; ++j) {
+                    readString(stream);
+                }
+            }
+
+            int numEntries = ByteUtils.readInt(stream);
+            for (int i = 0; i < numEntries; ++i) {
+                readString(stream);
+                ByteUtils.readLong(stream);
+                ByteUtils.readLong(stream);
+                ByteUtils.readLong(stream);
+            }
+        }
+    }
+
+    /**
+     * Read a length-prefixed String from the specified Stream.
+     *
+     * @param stream the Stream to read (not null)
+     * @return the String that was read (not null)
+     * @throws IOException if the Stream can't be read
+     */
+    private static String readString(InputStream stream) throws IOException {
+        int length = ByteUtils.readInt(stream);
+        byte[] bytes = new byte[length];
+        ByteUtils.readData(bytes, length, stream);
+        String result = new String(bytes);
+
+        return result;
+    }
+
+    /**
+     * Write a version-6 summary of the highest-precedence shard using one bulk
+     * write over a FileChannel.
+     *
+     * @param file the file to write (not null)
+     * @throws IOException if the file can't be written
+     */
+    private static void writeWithChannel(File file) throws IOException {
+        CatalogShard shard = RyzomUtil.shards().get(0);
+        ByteBuffer buffer = shard.encodeMaps();
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+                ++numCalls;
+            }
+        }
+    }
+
+    /**
+     * Write a version-1 summary of the loaded catalog, one field at a time,
+     * using an unbuffered stream.
+     *
+     * @param file the file to write (not null)
+     * @throws IOException if the file can't be written
+     */
+    private static void writeWithStream(File file) throws IOException {
+        try (OutputStream stream
+                = new FilterOutputStream(new FileOutputStream(file)) {
+            @Override
+            public void write(int b) throws IOException {
+                ++numCalls;
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length)
+                    throws IOException {
+                ++numCalls;
+                out.write(bytes, offset, length);
+            }
+        }) {
+            ByteUtils.writeInt(stream, 0);
+            ByteUtils.writeLong(stream, 0L);
+
+            int numGeometries = 0;
+            for (BodyPart part : BodyPart.values()) {
+                for (String genderCode : RyzomUtil.genderCodeArray) {
+                    String[] names = RyzomUtil
+                            .knownGeometries(part, genderCode).toArray();
+                    writeStringArray(stream, names);
+                    numGeometries += names.length;
+                }
+            }
+            for (String groupName : RyzomUtil.groupNameArray) {
+                for (String genderCode : RyzomUtil.genderCodeArray) {
+                    writeStringArray(stream, RyzomUtil
+                            .knownAnimations(groupName, genderCode).toArray());
+                    writeStringArray(stream, RyzomUtil
+                            .knownKeywords(groupName, genderCode).toArray());
+                }
+            }
+
+            ByteUtils.writeInt(stream, numGeometries);
+            for (BodyPart part : BodyPart.values()) {
+                for (String genderCode : RyzomUtil.genderCodeArray) {
+                    for (String name : RyzomUtil
+                            .knownGeometries(part, genderCode).toArray()) {
+                        writeString(stream, name + ".j3o");
+                        ByteUtils.writeLong(stream, 0L);
+                        ByteUtils.writeLong(stream, 0L);
+                        ByteUtils.writeLong(stream, 0L);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a length-prefixed String to the specified Stream.
+     *
+     * @param stream the Stream to write (not null)
+     * @param string the String to write (not null)
+     * @throws IOException if the Stream can't be written
+     */
+    private static void writeString(OutputStream stream, String string)
+            throws IOException {
+        byte[] bytes = string.getBytes();
+        ByteUtils.writeInt(stream, bytes.length);
+        stream.write(bytes);
+    }
+
+    /**
+     * Write a length-prefixed array of strings to the specified Stream.
+     *
+     * @param stream the Stream to write (not null)
+     * @param array the strings to write (not null)
+     * @throws IOException if the Stream can't be written
+     */
+    private static void writeStringArray(OutputStream stream, String[] array)
+            throws IOException {
+        ByteUtils.writeInt(stream, array.length);
+        for (String string : array) {
+            writeString(stream, string);
+        }
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only view of a version-6 summary file, typically read into a heap
+ * buffer with a single bulk read. (Nothing is memory-mapped, so the file can
+ * be replaced while a view of it is in use.)
+ * <p>
+ * Each section is decoded only on first access, and each string only when a
+ * section that uses it is decoded. Sections may be decoded concurrently: each
+ * decoder reads through its own view of the buffer, and a string decoded by
+ * racing threads is decoded to equal values.
+ * <p>
+ * Each section carries its own CRC-32. Opening a summary verifies the header,
+ * the directory, and every section's CRC, so a corrupt file is rejected
+ * before any section is decoded.
+ * <p>
+ * Layout (all integers big-endian):
+ * <ol>
+ * <li>header: int magic number, int format version, int length of the file
+ * (in bytes), then the directory fingerprint (int number of files, long
+ * hash), then int number of sections</li>
+ * <li>section directory: for each section, int offset (from the start of the
+ * file), int length (in bytes), and int CRC-32 of the section's bytes</li>
+ * <li>section 0, the string table: int number of strings, then an int offset
+ * for each string plus one for the end of the data, followed by the UTF-8
+ * data. It holds only the manifest's filenames, which are already unique, so
+ * the writer's deduplication saves nothing in practice.</li>
+ * <li>name lists, one for each (body part, gender), encoded as a
+ * {@link FrontCodedDictionary}</li>
+ * <li>a {@link CounterpartTable} for each body part</li>
+ * <li>for each (skeletal group, gender): name lists of animation names and
+ * keywords, each encoded as a {@link FrontCodedDictionary}, followed by the
+ * {@link KeywordIndex} that relates them</li>
+ * <li>the manifest: int number of entries, then for each entry: int string
+ * index of the filename, long size, long modification time, long hash</li>
+ * </ol>
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class SummaryView {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * size of each entry in the section directory (in bytes)
+     */
+    final static int directoryEntryBytes = 12;
+    /**
+     * format version written to the header
+     */
+    final static int formatVersion = 6;
+    /**
+     * size of the header (in bytes)
+     */
+    final static int headerBytes = 28;
+    /**
+     * magic number that begins every summary file ("RYZS" in ASCII)
+     */
+    final static int magicNumber = 0x52595a53;
+    /**
+     * index of the string-table section
+     */
+    final static int stringSection = 0;
+    /**
+     * index of the first geometry section
+     */
+    final private static int firstGeometrySection = 1;
+    /**
+     * index of the first counterpart section
+     */
+    final private static int firstCounterpartSection
+            = firstGeometrySection + 2 * BodyPart.values().length;
+    /**
+     * index of the first animation section
+     */
+    final private static int firstAnimationSection
+            = firstCounterpartSection + BodyPart.values().length;
+    /**
+     * index of the manifest section
+     */
+    final static int manifestSection = firstAnimationSection
+            + 3 * RyzomUtil.groupNameArray.length
+            * RyzomUtil.genderCodeArray.length;
+    /**
+     * number of sections in the file
+     */
+    final static int numSections = manifestSection + 1;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(SummaryView.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * contents of the summary file (position and limit are never modified)
+     */
+    final private ByteBuffer buffer;
+    /**
+     * directory fingerprint recorded in the header
+     */
+    final private DirectoryFingerprint fingerprint;
+    /**
+     * offset of each section (in bytes)
+     */
+    final private int[] sectionOffsets = new int[numSections];
+    /**
+     * length of each section (in bytes)
+     */
+    final private int[] sectionLengths = new int[numSections];
+    /**
+     * offset of the first string's data (in bytes)
+     */
+    final private int stringDataOffset;
+    /**
+     * decoded strings, or null for those not yet decoded
+     */
+    final private String[] strings;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Validate the header, directory, and section checksums of the specified
+     * summary. The magic number and format version are checked first, so most
+     * foreign or outdated files are rejected without reading further.
+     *
+     * @param buffer the contents of the summary file (not null, alias created)
+     * @throws IOException if the header, directory, or a checksum is invalid
+     */
+    SummaryView(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int capacity = buffer.capacity();
+        if (capacity < headerBytes) {
+            throw new IOException("truncated header");
+        }
+        int magic = buffer.getInt(0);
+        if (magic != magicNumber) {
+            throw new IOException("not a summary file");
+        }
+        int version = buffer.getInt(4);
+        if (version != formatVersion) {
+            throw new IOException("unsupported format version " + version);
+        }
+        int declaredLength = buffer.getInt(8);
+        if (declaredLength != capacity) {
+            throw new IOException("length mismatch");
+        }
+
+        int numFiles = buffer.getInt(12);
+        long hash = buffer.getLong(16);
+        this.fingerprint = new DirectoryFingerprint(numFiles, hash);
+        int count = buffer.getInt(24);
+        if (count != numSections) {
+            throw new IOException("unexpected number of sections " + count);
+        }
+
+        int directoryEnd = headerBytes + directoryEntryBytes * numSections;
+        if (capacity < directoryEnd) {
+            throw new IOException("truncated directory");
+        }
+        for (int section = 0; section < numSections; ++section) {
+            int entryOffset = headerBytes + directoryEntryBytes * section;
+            int offset = buffer.getInt(entryOffset);
+            int length = buffer.getInt(entryOffset + 4);
+            if (offset < directoryEnd || length < 4
+                    || offset > capacity - length) {
+                throw new IOException("invalid section " + section);
+            }
+            sectionOffsets[section] = offset;
+            sectionLengths[section] = length;
+
+            CRC32 crc = new CRC32();
+            crc.update(sectionView(section));
+            if ((int) crc.getValue() != buffer.getInt(entryOffset + 8)) {
+                throw new IOException("checksum mismatch in section "
+                        + section);
+            }
+        }
+
+        int tableOffset = sectionOffsets[stringSection];
+        int numStrings = buffer.getInt(tableOffset);
+        long dataOffset = tableOffset + 4L * (numStrings + 2);
+        long tableEnd = tableOffset + (long) sectionLengths[stringSection];
+        if (numStrings < 0 || dataOffset > tableEnd) {
+            throw new IOException("invalid string table");
+        }
+        this.stringDataOffset = (int) dataOffset;
+        int dataLength = (int) (tableEnd - dataOffset);
+        if (stringOffset(numStrings) != dataLength) {
+            throw new IOException("invalid string table");
+        }
+        this.strings = new String[numStrings];
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Determine the index of the section that lists the animation names for
+     * the specified skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the section index (&gt;0)
+     */
+    static int animationSection(String groupName, String genderCode) {
+        int result = firstAnimationSection
+                + 3 * comboIndex(groupName, genderCode);
+        return result;
+    }
+
+    /**
+     * Calculate the CRC-32 of an encoded section.
+     *
+     * @param section the bytes of the section (not null, unaffected)
+     * @return the CRC value
+     */
+    static int checksum(byte[] section) {
+        CRC32 crc = new CRC32();
+        crc.update(section);
+        int result = (int) crc.getValue();
+
+        return result;
+    }
+
+    /**
+     * Decode the counterpart table in the specified section.
+     *
+     * @param section the index of a counterpart section (&gt;0,
+     * &lt;manifestSection)
+     * @return a new table (not null)
+     * @throws IOException if the section is corrupt
+     */
+    CounterpartTable counterparts(int section) throws IOException {
+        assert section > stringSection && section < manifestSection : section;
+
+        ByteBuffer view = sectionView(section);
+        CounterpartTable result = CounterpartTable.read(view);
+        if (view.hasRemaining()) {
+            throw new IOException("invalid counterpart table in section "
+                    + section);
+        }
+
+        return result;
+    }
+
+    /**
+     * Determine the index of the section that holds the counterpart table for
+     * the specified body part.
+     *
+     * @param part (not null)
+     * @return the section index (&gt;0)
+     */
+    static int counterpartSection(BodyPart part) {
+        int result = firstCounterpartSection + part.ordinal();
+        return result;
+    }
+
+    /**
+     * Access the directory fingerprint recorded in the header.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    DirectoryFingerprint fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Determine the index of the section that lists the geometry assets for
+     * the specified body part and gender.
+     *
+     * @param part (not null)
+     * @param genderCode "f" for female or "m" for male
+     * @return the section index (&gt;0)
+     */
+    static int geometrySection(BodyPart part, String genderCode) {
+        int result = firstGeometrySection + 2 * part.ordinal();
+        if (genderCode.equals("m")) {
+            ++result;
+        } else {
+            assert genderCode.equals("f") : genderCode;
+        }
+
+        return result;
+    }
+
+    /**
+     * Decode the keyword index in the specified section.
+     *
+     * @param section the index of a keyword-index section (&gt;0,
+     * &lt;manifestSection)
+     * @return a new index (not null)
+     * @throws IOException if the section is corrupt
+     */
+    KeywordIndex keywordIndex(int section) throws IOException {
+        assert section > stringSection && section < manifestSection : section;
+
+        ByteBuffer view = sectionView(section);
+        KeywordIndex result = KeywordIndex.read(view);
+        if (view.hasRemaining()) {
+            throw new IOException("invalid keyword index in section "
+                    + section);
+        }
+
+        return result;
+    }
+
+    /**
+     * Determine the index of the section that holds the keyword index for the
+     * specified skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the section index (&gt;0)
+     */
+    static int keywordIndexSection(String groupName, String genderCode) {
+        int result = animationSection(groupName, genderCode) + 2;
+        return result;
+    }
+
+    /**
+     * Determine the index of the section that lists the animation keywords
+     * for the specified skeletal group and gender.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the section index (&gt;0)
+     */
+    static int keywordSection(String groupName, String genderCode) {
+        int result = animationSection(groupName, genderCode) + 1;
+        return result;
+    }
+
+    /**
+     * Decode the dictionary of names in the specified section.
+     *
+     * @param section the index of a name-list section (&gt;0,
+     * &lt;manifestSection)
+     * @return a dictionary (not null)
+     * @throws IOException if the section is corrupt
+     */
+    FrontCodedDictionary names(int section) throws IOException {
+        assert section > stringSection && section < manifestSection : section;
+
+        ByteBuffer view = sectionView(section);
+        FrontCodedDictionary result;
+        try {
+            result = FrontCodedDictionary.read(view);
+        } catch (BufferUnderflowException exception) {
+            throw new IOException("truncated section " + section, exception);
+        }
+        if (view.hasRemaining()) {
+            throw new IOException("invalid name list in section " + section);
+        }
+
+        return result;
+    }
+
+    /**
+     * Decode the manifest and add its entries to the specified map.
+     *
+     * @param storeResult the map to add to (not null, modified)
+     * @throws IOException if the section is corrupt
+     */
+    void readManifest(Map<String, ManifestEntry> storeResult)
+            throws IOException {
+        int offset = sectionOffsets[manifestSection];
+        int count = buffer.getInt(offset);
+        int entryBytes = 4 + 3 * 8;
+        if (count < 0 || 4L + (long) count * entryBytes
+                > sectionLengths[manifestSection]) {
+            throw new IOException("invalid manifest");
+        }
+
+        int position = offset + 4;
+        for (int i = 0; i < count; ++i) {
+            String fileName = string(buffer.getInt(position));
+            long size = buffer.getLong(position + 4);
+            long lastModified = buffer.getLong(position + 12);
+            long hash = buffer.getLong(position + 20);
+            ManifestEntry entry = new ManifestEntry(size, lastModified, hash);
+            storeResult.put(fileName, entry);
+            position += entryBytes;
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Determine the index of the specified (skeletal group, gender)
+     * combination.
+     *
+     * @param groupName "ca" or "ge"
+     * @param genderCode "f" for female or "m" for male
+     * @return the index (&ge;0)
+     */
+    private static int comboIndex(String groupName, String genderCode) {
+        int groupIndex = Arrays.asList(RyzomUtil.groupNameArray)
+                .indexOf(groupName);
+        int genderIndex = Arrays.asList(RyzomUtil.genderCodeArray)
+                .indexOf(genderCode);
+        assert groupIndex >= 0 : groupName;
+        assert genderIndex >= 0 : genderCode;
+
+        int result = groupIndex * RyzomUtil.genderCodeArray.length
+                + genderIndex;
+        return result;
+    }
+
+    /**
+     * Create a view of the specified section.
+     *
+     * @param section the index of the section (&ge;0, &lt;numSections)
+     * @return a new view, positioned at the start of the section and limited
+     * to its end
+     */
+    private ByteBuffer sectionView(int section) {
+        ByteBuffer result = buffer.duplicate();
+        int offset = sectionOffsets[section];
+        result.limit(offset + sectionLengths[section]);
+        result.position(offset);
+
+        return result;
+    }
+
+    /**
+     * Access the indexed string, decoding it if necessary.
+     *
+     * @param index the index in the string table
+     * @return the string (not null)
+     * @throws IOException if the index or the string table is invalid
+     */
+    private String string(int index) throws IOException {
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("invalid string index " + index);
+        }
+
+        String result = strings[index];
+        if (result == null) {
+            int start = stringOffset(index);
+            int end = stringOffset(index + 1);
+            if (start < 0 || end < start
+                    || stringDataOffset + end > buffer.capacity()) {
+                throw new IOException("invalid string " + index);
+            }
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringDataOffset + start);
+            view.get(bytes);
+            result = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Read the offset of the indexed string's data, relative to the first
+     * string's data.
+     *
+     * @param index the index in the string table (&ge;0, &le;numStrings)
+     * @return the offset (in bytes)
+     */
+    private int stringOffset(int index) {
+        int tableOffset = sectionOffsets[stringSection];
+        int result = buffer.getInt(tableOffset + 4 * (index + 1));
+
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ Copyright (c) 2026, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ryzomdemos;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Assemble the sections of a version-6 summary file and encode them, preceded
+ * by a header and a section directory, into a single buffer that can be
+ * written with one bulk operation. See {@link SummaryView} for the layout.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+class SummaryWriter {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * size of an encoded manifest entry (in bytes)
+     */
+    final private static int manifestEntryBytes = 4 + 3 * 8;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(SummaryWriter.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * encoded contents of each section, or null if not yet added
+     */
+    final private byte[][] sections = new byte[SummaryView.numSections][];
+    /**
+     * deduplicated strings in order of first use (currently only manifest
+     * filenames, which are unique anyway)
+     */
+    final private List<String> strings = new ArrayList<>();
+    /**
+     * index of each string in the string table: key = string
+     */
+    final private Map<String, Integer> stringIndices = new HashMap<>();
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Add a counterpart section.
+     *
+     * @param section the index of the section (&gt;0, &lt;manifestSection)
+     * @param table the table to encode (not null, unaffected)
+     */
+    void addCounterparts(int section, CounterpartTable table) {
+        ByteBuffer buffer = ByteBuffer.allocate(table.encodedBytes());
+        table.write(buffer);
+        assert !buffer.hasRemaining();
+        sections[section] = buffer.array();
+    }
+
+    /**
+     * Add a keyword-index section.
+     *
+     * @param section the index of the section (&gt;0, &lt;manifestSection)
+     * @param index the index to encode (not null, unaffected)
+     */
+    void addKeywordIndex(int section, KeywordIndex index) {
+        ByteBuffer buffer = ByteBuffer.allocate(index.encodedBytes());
+        index.write(buffer);
+        assert !buffer.hasRemaining();
+        sections[section] = buffer.array();
+    }
+
+    /**
+     * Add the manifest section.
+     *
+     * @param manifest the manifest to encode (not null, unaffected)
+     */
+    void addManifest(Map<String, ManifestEntry> manifest) {
+        int numEntries = manifest.size();
+        ByteBuffer buffer
+                = ByteBuffer.allocate(4 + numEntries * manifestEntryBytes);
+        buffer.putInt(numEntries);
+        for (Map.Entry<String, ManifestEntry> mapEntry : manifest.entrySet()) {
+            buffer.putInt(indexOf(mapEntry.getKey()));
+            ManifestEntry entry = mapEntry.getValue();
+            buffer.putLong(entry.size());
+            buffer.putLong(entry.lastModified());
+            buffer.putLong(entry.hash());
+        }
+        sections[SummaryView.manifestSection] = buffer.array();
+    }
+
+    /**
+     * Add a name-list section.
+     *
+     * @param section the index of the section (&gt;0, &lt;manifestSection)
+     * @param names the names to encode (not null, unaffected)
+     */
+    void addNames(int section, FrontCodedDictionary names) {
+        ByteBuffer buffer = ByteBuffer.allocate(names.encodedBytes());
+        names.write(buffer);
+        assert !buffer.hasRemaining();
+        sections[section] = buffer.array();
+    }
+
+    /**
+     * Encode the complete summary. All sections other than the string table
+     * must have been added.
+     *
+     * @param fingerprint the directory fingerprint for the header (not null)
+     * @return a new buffer, flipped and ready to be written
+     */
+    ByteBuffer encode(DirectoryFingerprint fingerprint) {
+        sections[SummaryView.stringSection] = encodeStringTable();
+
+        int directoryEnd = SummaryView.headerBytes
+                + SummaryView.directoryEntryBytes * SummaryView.numSections;
+        int totalBytes = directoryEnd;
+        for (byte[] section : sections) {
+            assert section != null;
+            totalBytes += section.length;
+        }
+
+        ByteBuffer result = ByteBuffer.allocate(totalBytes);
+        result.putInt(SummaryView.magicNumber);
+        result.putInt(SummaryView.formatVersion);
+        result.putInt(totalBytes);
+        result.putInt(fingerprint.numFiles());
+        result.putLong(fingerprint.hash());
+        result.putInt(SummaryView.numSections);
+
+        int offset = directoryEnd;
+        for (byte[] section : sections) {
+            result.putInt(offset);
+            result.putInt(section.length);
+            result.putInt(SummaryView.checksum(section));
+            offset += section.length;
+        }
+        for (byte[] section : sections) {
+            result.put(section);
+        }
+        assert !result.hasRemaining();
+        result.flip();
+
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Encode the string table.
+     *
+     * @return a new array of bytes
+     */
+    private byte[] encodeStringTable() {
+        int numStrings = strings.size();
+        byte[][] encoded = new byte[numStrings][];
+        int dataBytes = 0;
+        for (int i = 0; i < numStrings; ++i) {
+            encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            dataBytes += encoded[i].length;
+        }
+
+        ByteBuffer buffer
+                = ByteBuffer.allocate(4 * (numStrings + 2) + dataBytes);
+        buffer.putInt(numStrings);
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] bytes : encoded) {
+            buffer.put(bytes);
+        }
+
+        byte[] result = buffer.array();
+        return result;
+    }
+
+    /**
+     * Find the specified string in the string table, adding it if necessary.
+     *
+     * @param string the string to find (not null)
+     * @return the index of the string (&ge;0)
+     */
+    private int indexOf(String string) {
+        Integer index = stringIndices.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            stringIndices.put(string, index);
+        }
+
+        return index;
+    }
+}